@@ -0,0 +1,84 @@
+package com.dws.challenge;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.repository.AccountsRepositoryInMemory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Cost of maintaining the ordered account index on createAccount.
+ * hashMapOnly is what createAccount did before the index (primary map only), createAccount maintains both structures.
+ * Accounts are created on top of preloaded ones spread over branch prefixes, so inserts land all over the skip list.
+ * Run with : gradle jmh -PjmhThreads=4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccountsRepositoryBenchmark {
+
+  private static final int BRANCHES = 512;
+
+  @Param({ "10000", "1000000" })
+  private int preloadedAccounts;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private AccountsRepositoryInMemory repository;
+
+  private Map<String, Account> hashMapOnly;
+
+  @Setup(Level.Iteration)
+  public void preload() {
+    repository = new AccountsRepositoryInMemory();
+    hashMapOnly = new ConcurrentHashMap<>();
+    for (int i = 0; i < preloadedAccounts; i++) {
+      Account account = new Account(nextAccountId(), BigDecimal.TEN);
+      repository.createAccount(account);
+      hashMapOnly.put(account.getAccountId(), account);
+    }
+  }
+
+  @Benchmark
+  public Account hashMapOnly() {
+    Account account = new Account(nextAccountId(), BigDecimal.TEN);
+    return hashMapOnly.putIfAbsent(account.getAccountId(), account);
+  }
+
+  @Benchmark
+  public Account createAccount() {
+    Account account = new Account(nextAccountId(), BigDecimal.TEN);
+    repository.createAccount(account);
+    return account;
+  }
+
+  @Benchmark
+  public List<Account> listPageByPrefix() {
+    String prefix = branch(ThreadLocalRandom.current().nextInt(BRANCHES));
+    return repository.listAccounts(null, prefix, null, 100);
+  }
+
+  private String nextAccountId() {
+    long id = sequence.incrementAndGet();
+    return branch((int) (id % BRANCHES)) + id;
+  }
+
+  private static String branch(int branch) {
+    return "BR" + branch + "-";
+  }
+}
@@ -0,0 +1,172 @@
+package com.dws.challenge.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/*
+ * Progress of an end of day job. Every partition is processed by a single fork/join task in account id order and the
+ * last processed account id of a partition is the cursor to resume from. Cursors are checkpointed periodically and may lag
+ * behind, so a resumed job goes over some accounts again (at least once), accounts it already adjusted carry its applied
+ * marker and are left as they are (see AccountsService.adjustBalance). Markers are removed once the job completes or is cancelled.
+ */
+public class BatchJob {
+
+	@Getter
+	private final String jobId;
+
+	@Getter
+	private final BatchJobRequest request;
+
+	private final AtomicReferenceArray<String> cursors;
+
+	private final AtomicIntegerArray completedPartitions;
+
+	private final LongAdder processedAccounts = new LongAdder();
+
+	@Getter
+	private volatile BatchJobStatus status;
+
+	@Getter
+	private volatile boolean pauseRequested;
+
+	private volatile String failure;
+
+	private volatile boolean cancelRequested;
+
+	// when the job last stopped running (paused or failed), unresumed jobs are cancelled after a while
+	private volatile long stoppedAtMillis = System.currentTimeMillis();
+
+	public BatchJob(String jobId, BatchJobRequest request, int partitionCount)
+	{
+		this.jobId = jobId;
+		this.request = request;
+		this.cursors = new AtomicReferenceArray<>(partitionCount);
+		this.completedPartitions = new AtomicIntegerArray(partitionCount);
+		this.status = BatchJobStatus.PAUSED;
+	}
+
+	public static BatchJob fromState(BatchJobState state)
+	{
+		BatchJob job = new BatchJob(state.getJobId(), state.getRequest(), state.getCursors().size());
+		for(int partition=0;partition<state.getCursors().size();partition++) {
+			job.cursors.set(partition, state.getCursors().get(partition));
+			job.completedPartitions.set(partition, Boolean.TRUE.equals(state.getCompletedPartitions().get(partition)) ? 1 : 0);
+		}
+		job.processedAccounts.add(state.getProcessedAccounts());
+		// a job which was running when checkpointed was interrupted, it can be resumed
+		job.status = state.getStatus()==BatchJobStatus.RUNNING ? BatchJobStatus.PAUSED : state.getStatus();
+		job.failure = state.getFailure();
+		return job;
+	}
+
+	public BatchJobState toState()
+	{
+		List<String> cursorList = new ArrayList<>(cursors.length());
+		List<Boolean> completedList = new ArrayList<>(cursors.length());
+		for(int partition=0;partition<cursors.length();partition++) {
+			cursorList.add(cursors.get(partition));
+			completedList.add(completedPartitions.get(partition)==1);
+		}
+		return new BatchJobState(jobId, request, status, processedAccounts.sum(), cursorList, completedList, failure);
+	}
+
+	public int getPartitionCount()
+	{
+		return cursors.length();
+	}
+
+	public String getCursor(int partition)
+	{
+		return cursors.get(partition);
+	}
+
+	public boolean isPartitionCompleted(int partition)
+	{
+		return completedPartitions.get(partition)==1;
+	}
+
+	void advance(int partition, String accountId)
+	{
+		cursors.set(partition, accountId);
+		processedAccounts.increment();
+	}
+
+	void completePartition(int partition)
+	{
+		completedPartitions.set(partition, 1);
+	}
+
+	// returns false if job is already running, completed or cancelled
+	synchronized boolean markRunning()
+	{
+		if(status==BatchJobStatus.RUNNING || status==BatchJobStatus.COMPLETED || status==BatchJobStatus.CANCELLED)
+			return false;
+		status = BatchJobStatus.RUNNING;
+		pauseRequested = false;
+		failure = null;
+		return true;
+	}
+
+	void requestPause()
+	{
+		pauseRequested = true;
+	}
+
+	synchronized void finish()
+	{
+		stoppedAtMillis = System.currentTimeMillis();
+		if(cancelRequested) {
+			status = BatchJobStatus.CANCELLED;
+			return;
+		}
+		if(failure!=null) {
+			status = BatchJobStatus.FAILED;
+			return;
+		}
+		for(int partition=0;partition<completedPartitions.length();partition++) {
+			if(completedPartitions.get(partition)==0) {
+				status = BatchJobStatus.PAUSED;
+				return;
+			}
+		}
+		status = BatchJobStatus.COMPLETED;
+	}
+
+	/*
+	 * Method will cancel a paused or failed job right away, a running job stops at its next account and is cancelled once every task returned
+	 * @returns true if job became CANCELLED now , false if it is running (cancelled by finish) or already completed or cancelled
+	 */
+	synchronized boolean cancel()
+	{
+		if(status==BatchJobStatus.COMPLETED || status==BatchJobStatus.CANCELLED)
+			return false;
+		if(status==BatchJobStatus.RUNNING) {
+			cancelRequested = true;
+			pauseRequested = true;
+			return false;
+		}
+		status = BatchJobStatus.CANCELLED;
+		return true;
+	}
+
+	// cancels a paused or failed job only if it is still stopped since before given time
+	synchronized boolean cancelIfStoppedBefore(long timeMillis)
+	{
+		if((status!=BatchJobStatus.PAUSED && status!=BatchJobStatus.FAILED) || stoppedAtMillis>=timeMillis)
+			return false;
+		status = BatchJobStatus.CANCELLED;
+		return true;
+	}
+
+	// other partitions stop at their next account, job becomes FAILED once every task returned
+	synchronized void fail(Throwable cause)
+	{
+		failure = String.valueOf(cause.getMessage());
+		pauseRequested = true;
+	}
+}
@@ -0,0 +1,20 @@
+package com.dws.challenge.batch;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchJobRequest {
+	@NotNull
+	private BatchOperationType operation;
+	@NotNull
+	@Min(value = 0, message = "Parameter of batch operation should be positive")
+	private BigDecimal parameter;
+}
@@ -0,0 +1,31 @@
+package com.dws.challenge.batch;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Snapshot of a batch job, returned by the API and written as checkpoint.
+ * cursors holds, per partition, the last account id processed (partitions are processed in account id order).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchJobState {
+
+	private String jobId;
+
+	private BatchJobRequest request;
+
+	private BatchJobStatus status;
+
+	private long processedAccounts;
+
+	private List<String> cursors;
+
+	private List<Boolean> completedPartitions;
+
+	private String failure;
+}
@@ -0,0 +1,5 @@
+package com.dws.challenge.batch;
+
+public enum BatchJobStatus {
+	RUNNING, PAUSED, COMPLETED, FAILED, CANCELLED
+}
@@ -0,0 +1,40 @@
+package com.dws.challenge.batch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.UnaryOperator;
+
+/*
+ * Per account operations supported by end of day jobs, parameter meaning depends on the operation
+ */
+public enum BatchOperationType {
+
+	// parameter is the interest rate for the period, e.g. 0.0001
+	INTEREST_ACCRUAL {
+		@Override
+		public UnaryOperator<BigDecimal> operation(BigDecimal rate)
+		{
+			return balance -> balance.add(balance.multiply(rate).setScale(2, RoundingMode.HALF_EVEN));
+		}
+	},
+
+	// parameter is the fee, it is charged up to the available balance so that balance never goes negative
+	MAINTENANCE_FEE {
+		@Override
+		public UnaryOperator<BigDecimal> operation(BigDecimal fee)
+		{
+			return balance -> balance.subtract(fee.min(balance));
+		}
+	},
+
+	// parameter is the maximum balance
+	BALANCE_CAP {
+		@Override
+		public UnaryOperator<BigDecimal> operation(BigDecimal cap)
+		{
+			return balance -> balance.min(cap);
+		}
+	};
+
+	public abstract UnaryOperator<BigDecimal> operation(BigDecimal parameter);
+}
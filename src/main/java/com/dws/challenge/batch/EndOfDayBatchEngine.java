@@ -0,0 +1,351 @@
+package com.dws.challenge.batch;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.BatchJobNotFoundException;
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.service.AccountsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Runs end of day jobs (interest accrual, fees, balance caps) over all accounts while transfers keep running.
+ * Accounts are split by hash into partitions which are processed in parallel by fork/join tasks, each account is
+ * locked only while its own balance is updated (see AccountsService.adjustBalance), never for the whole job.
+ * Progress of every partition is checkpointed as JSON so that a paused, failed or interrupted job resumes near where it stopped.
+ * Checkpoints are taken periodically and may lag behind, an account is never adjusted twice by a job because the job is
+ * marked as applied on the account under its lock. Markers are removed once the job completes or is cancelled, paused and
+ * failed jobs which are not resumed within batch.abandon-after-millis are cancelled.
+ */
+@Slf4j
+@Service
+public class EndOfDayBatchEngine {
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+	private final AccountsService accountsService;
+
+	private final AccountsRepository accountsRepository;
+
+	private final ObjectMapper objectMapper;
+
+	private final int partitionCount;
+
+	private final long checkpointIntervalMillis;
+
+	private final Path checkpointDirectory;
+
+	private final long abandonAfterMillis;
+
+	private final ForkJoinPool pool;
+
+	private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService maintenance;
+
+	public EndOfDayBatchEngine(AccountsService accountsService, ObjectMapper objectMapper,
+			@Value("${batch.parallelism:0}") int parallelism,
+			@Value("${batch.partitions:64}") int partitionCount,
+			@Value("${batch.checkpoint-interval-millis:1000}") long checkpointIntervalMillis,
+			@Value("${batch.checkpoint-dir:}") String checkpointDirectory,
+			@Value("${batch.abandon-after-millis:86400000}") long abandonAfterMillis)
+	{
+		this.accountsService = accountsService;
+		this.accountsRepository = accountsService.getAccountsRepository();
+		this.objectMapper = objectMapper;
+		this.partitionCount = partitionCount;
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+		this.checkpointDirectory = checkpointDirectory.isBlank() ? null : Path.of(checkpointDirectory);
+		this.abandonAfterMillis = abandonAfterMillis;
+		this.pool = new ForkJoinPool(parallelism>0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+
+	@PostConstruct
+	public void start() throws IOException
+	{
+		maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "batch-maintenance");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if(abandonAfterMillis>0) {
+			long sweepMillis = Math.max(1, Math.min(abandonAfterMillis, 60_000));
+			maintenance.scheduleWithFixedDelay(this::cancelAbandonedJobs, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+		}
+		if(checkpointDirectory==null)
+			return;
+		Files.createDirectories(checkpointDirectory);
+		maintenance.scheduleWithFixedDelay(this::checkpointRunningJobs, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException
+	{
+		for(BatchJob job : jobs.values())
+			job.requestPause();
+		pool.shutdown();
+		if(!pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+			log.warn("End of day jobs did not pause within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+		if(maintenance!=null)
+			maintenance.shutdown();
+		checkpointRunningJobs();
+	}
+
+	/*
+	 * Method will start a new end of day job in background
+	 * @parameter request:BatchJobRequest
+	 * @returns state of started job
+	 * @throws ReadOnlyReplicaException on a standby
+	 */
+	public BatchJobState startJob(BatchJobRequest request)
+	{
+		accountsService.checkWritable();
+		BatchJob job = new BatchJob(UUID.randomUUID().toString(), request, partitionCount);
+		jobs.put(job.getJobId(), job);
+		run(job);
+		return job.toState();
+	}
+
+	/*
+	 * Method will ask a running job to stop, every partition stops after the account it is processing
+	 * @parameter jobId:String
+	 * @returns state of job
+	 * @throws BatchJobNotFoundException if job is unknown
+	 */
+	public BatchJobState pauseJob(String jobId)
+	{
+		BatchJob job = findJob(jobId);
+		job.requestPause();
+		return job.toState();
+	}
+
+	/*
+	 * Method will continue a paused or failed job from its checkpoint, running and completed jobs are left as they are
+	 * @parameter jobId:String
+	 * @returns state of job
+	 * @throws BatchJobNotFoundException if job is unknown , ReadOnlyReplicaException on a standby
+	 */
+	public BatchJobState resumeJob(String jobId)
+	{
+		accountsService.checkWritable();
+		BatchJob job = findJob(jobId);
+		run(job);
+		return job.toState();
+	}
+
+	/*
+	 * Method will cancel a job which is not to be resumed, its applied markers are removed from accounts
+	 * A running job stops after the account every partition is processing and is cancelled once it stopped
+	 * @parameter jobId:String
+	 * @returns state of job
+	 * @throws BatchJobNotFoundException if job is unknown
+	 */
+	public BatchJobState cancelJob(String jobId)
+	{
+		BatchJob job = findJob(jobId);
+		if(job.cancel())
+			cancelled(job);
+		return job.toState();
+	}
+
+	public BatchJobState getJob(String jobId)
+	{
+		return findJob(jobId).toState();
+	}
+
+	private BatchJob findJob(String jobId)
+	{
+		BatchJob job = jobs.computeIfAbsent(jobId, this::loadCheckpoint);
+		if(job==null)
+			throw new BatchJobNotFoundException("Batch job " + jobId + " does not exist");
+		return job;
+	}
+
+	private void run(BatchJob job)
+	{
+		if(!job.markRunning())
+			return;
+		UnaryOperator<BigDecimal> operation = job.getRequest().getOperation().operation(job.getRequest().getParameter());
+		String description = job.getRequest().getOperation() + " " + job.getJobId();
+		pool.execute(() -> {
+			long startedAt = System.nanoTime();
+			try {
+				new PartitionTask(job, partition(job.getPartitionCount()), operation, description, 0, job.getPartitionCount()).invoke();
+			} catch(RuntimeException e) {
+				job.fail(e);
+			}
+			job.finish();
+			writeCheckpoint(job);
+			if(job.getStatus()==BatchJobStatus.COMPLETED || job.getStatus()==BatchJobStatus.CANCELLED)
+				clearAppliedMarkers(job);
+			log.info("End of day job {} {} after {} ms, {} accounts processed", job.getJobId(), job.getStatus(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), job.toState().getProcessedAccounts());
+		});
+	}
+
+	/*
+	 * Method will split current accounts into partitions by hash of account id, every partition sorted by account id
+	 * String.hashCode is specified by the JDK, so an account falls into the same partition after a restart
+	 */
+	private List<List<Account>> partition(int partitions)
+	{
+		List<List<Account>> partitioned = new ArrayList<>(partitions);
+		for(int partition=0;partition<partitions;partition++)
+			partitioned.add(new ArrayList<>());
+		for(Account account : accountsRepository.getAccounts())
+			partitioned.get(Math.floorMod(account.getAccountId().hashCode(), partitions)).add(account);
+		for(List<Account> accounts : partitioned)
+			accounts.sort(Comparator.comparing(Account::getAccountId));
+		return partitioned;
+	}
+
+	// paused and failed jobs left alone for abandon-after-millis are not going to be resumed
+	private void cancelAbandonedJobs()
+	{
+		long abandonedBefore = System.currentTimeMillis() - abandonAfterMillis;
+		for(BatchJob job : jobs.values()) {
+			if(job.cancelIfStoppedBefore(abandonedBefore)) {
+				log.warn("End of day job {} was not resumed within {} ms", job.getJobId(), abandonAfterMillis);
+				cancelled(job);
+			}
+		}
+	}
+
+	private void cancelled(BatchJob job)
+	{
+		writeCheckpoint(job);
+		clearAppliedMarkers(job);
+		log.info("End of day job {} cancelled", job.getJobId());
+	}
+
+	// completed or cancelled job is never resumed, its markers are no longer needed once its status is checkpointed
+	private void clearAppliedMarkers(BatchJob job)
+	{
+		for(Account account : accountsRepository.getAccounts())
+			account.clearBatchJobApplied(job.getJobId());
+	}
+
+	private void checkpointRunningJobs()
+	{
+		for(BatchJob job : jobs.values())
+			if(job.getStatus()==BatchJobStatus.RUNNING)
+				writeCheckpoint(job);
+	}
+
+	private synchronized void writeCheckpoint(BatchJob job)
+	{
+		if(checkpointDirectory==null)
+			return;
+		try {
+			Path temporary = checkpointDirectory.resolve(job.getJobId() + ".json.tmp");
+			objectMapper.writeValue(temporary.toFile(), job.toState());
+			Files.move(temporary, checkpointFile(job.getJobId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(IOException e) {
+			log.error("Could not checkpoint end of day job {} {}", job.getJobId(), e.getMessage());
+		}
+	}
+
+	private BatchJob loadCheckpoint(String jobId)
+	{
+		if(checkpointDirectory==null || !jobId.matches("[0-9a-fA-F-]+"))
+			return null;
+		Path file = checkpointFile(jobId);
+		if(!Files.exists(file))
+			return null;
+		try {
+			return BatchJob.fromState(objectMapper.readValue(file.toFile(), BatchJobState.class));
+		} catch(IOException e) {
+			log.error("Could not read checkpoint of end of day job {} {}", jobId, e.getMessage());
+			return null;
+		}
+	}
+
+	private Path checkpointFile(String jobId)
+	{
+		return checkpointDirectory.resolve(jobId + ".json");
+	}
+
+	/*
+	 * Splits the range of partitions in halves until a single partition is left, which is processed by the worker
+	 */
+	private class PartitionTask extends RecursiveAction {
+
+		private final BatchJob job;
+
+		private final List<List<Account>> partitions;
+
+		private final UnaryOperator<BigDecimal> operation;
+
+		private final String description;
+
+		private final int from;
+
+		private final int to;
+
+		private PartitionTask(BatchJob job, List<List<Account>> partitions, UnaryOperator<BigDecimal> operation, String description, int from, int to)
+		{
+			this.job = job;
+			this.partitions = partitions;
+			this.operation = operation;
+			this.description = description;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(to - from==1) {
+				processPartition(from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PartitionTask(job, partitions, operation, description, from, middle),
+					new PartitionTask(job, partitions, operation, description, middle, to));
+		}
+
+		private void processPartition(int partition)
+		{
+			if(job.isPartitionCompleted(partition))
+				return;
+			String cursor = job.getCursor(partition);
+			try {
+				for(Account account : partitions.get(partition)) {
+					if(cursor!=null && account.getAccountId().compareTo(cursor)<=0)
+						continue;
+					if(job.isPauseRequested())
+						return;
+					accountsService.adjustBalance(account, job.getJobId(), operation, description);
+					job.advance(partition, account.getAccountId());
+				}
+				job.completePartition(partition);
+			} catch(RuntimeException e) {
+				log.error("End of day job {} failed on partition {}", job.getJobId(), partition, e);
+				job.fail(e);
+			}
+		}
+	}
+}
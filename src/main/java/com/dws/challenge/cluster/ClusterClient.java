@@ -0,0 +1,156 @@
+package com.dws.challenge.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import com.dws.challenge.exception.ClusterCommunicationException;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * HTTP client used by a node to talk to other nodes of the cluster.
+ * Single shared HttpClient keeps a pool of keep-alive HTTP/1.1 connections per node.
+ * Every call carries the cluster shared secret, receiving node trusts forwarded and internal calls only with it.
+ */
+@Component
+public class ClusterClient {
+
+	public static final String FORWARDED_HEADER = "X-Cluster-Forwarded-By";
+
+	public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+	private static final String[] RELAYED_RESPONSE_HEADERS = { HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG };
+
+	private final HttpClient httpClient;
+
+	private final ObjectMapper objectMapper;
+
+	private final ClusterRouter clusterRouter;
+
+	private final Duration requestTimeout;
+
+	public ClusterClient(ObjectMapper objectMapper, ClusterRouter clusterRouter,
+			@Value("${cluster.connect-timeout-millis:1000}") long connectTimeoutMillis,
+			@Value("${cluster.request-timeout-millis:5000}") long requestTimeoutMillis,
+			@Value("${cluster.client-threads:8}") int clientThreads)
+	{
+		this.objectMapper = objectMapper;
+		this.clusterRouter = clusterRouter;
+		this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+				.executor(Executors.newFixedThreadPool(clientThreads, runnable -> {
+					Thread thread = new Thread(runnable, "cluster-client");
+					thread.setDaemon(true);
+					return thread;
+				}))
+				.build();
+	}
+
+	/*
+	 * Method will build path of an account resource, account id encoded as a path segment
+	 * @parameter accountId:String
+	 * @returns path to forward account requests to
+	 */
+	public static String accountPath(String accountId)
+	{
+		return "/v1/accounts/" + UriUtils.encodePathSegment(accountId, StandardCharsets.UTF_8);
+	}
+
+	/*
+	 * Method will forward a client request to node owning the account and relay its response
+	 * @parameter nodeUrl:String , method:String , path:String , body:Object (null for requests without body)
+	 * @returns response of owning node
+	 * @throws ClusterCommunicationException if owning node could not be reached
+	 */
+	public ResponseEntity<Object> forward(String nodeUrl, String method, String path, Object body)
+	{
+		return forward(nodeUrl, method, path, body, new HttpHeaders());
+	}
+
+	public ResponseEntity<Object> forward(String nodeUrl, String method, String path, Object body, HttpHeaders requestHeaders)
+	{
+		HttpResponse<String> response = send(nodeUrl, method, path, body, requestHeaders);
+		ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode());
+		for(String relayedHeader : RELAYED_RESPONSE_HEADERS)
+			response.headers().firstValue(relayedHeader).ifPresent(value -> builder.header(relayedHeader, value));
+		return builder.body(response.body().isEmpty() ? null : response.body());
+	}
+
+	/*
+	 * Method will call an internal cluster endpoint of given node
+	 * @parameter nodeUrl:String , path:String , body:Object
+	 * @returns void
+	 * @throws TranserMoneyValidationException if node rejected the call , ClusterCommunicationException if node could not be reached
+	 */
+	public void call(String nodeUrl, String path, Object body) throws TranserMoneyValidationException
+	{
+		callInternal(nodeUrl, path, body);
+	}
+
+	/*
+	 * Method will ask coordinating node of a cross node transfer for its outcome
+	 * @parameter nodeUrl:String , transferId:String
+	 * @returns outcome known by coordinator
+	 * @throws ClusterCommunicationException if node could not be reached
+	 */
+	public ClusterTransferOutcome queryOutcome(String nodeUrl, String transferId)
+	{
+		String path = "/v1/internal/cluster/outcome/" + transferId;
+		HttpResponse<String> response = callInternal(nodeUrl, path, null);
+		try {
+			return objectMapper.readValue(response.body(), ClusterTransferOutcome.class);
+		} catch(JsonProcessingException e) {
+			throw new ClusterCommunicationException("Unexpected answer of node " + nodeUrl + " for " + path, e);
+		}
+	}
+
+	private HttpResponse<String> callInternal(String nodeUrl, String path, Object body)
+	{
+		HttpResponse<String> response = send(nodeUrl, "POST", path, body, new HttpHeaders());
+		if(response.statusCode()==HttpStatus.BAD_REQUEST.value())
+			throw new TranserMoneyValidationException(response.body());
+		if(response.statusCode()/100!=2)
+			throw new ClusterCommunicationException("Node " + nodeUrl + " answered " + response.statusCode() + " for " + path);
+		return response;
+	}
+
+	private HttpResponse<String> send(String nodeUrl, String method, String path, Object body, HttpHeaders requestHeaders)
+	{
+		try {
+			HttpRequest.BodyPublisher bodyPublisher = body==null ? HttpRequest.BodyPublishers.noBody()
+					: HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+			HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(nodeUrl + path))
+					.timeout(requestTimeout)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+					.header(FORWARDED_HEADER, clusterRouter.getSelfUrl())
+					.header(SECRET_HEADER, clusterRouter.getSharedSecret())
+					.method(method, bodyPublisher);
+			requestHeaders.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+			return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		} catch(JsonProcessingException e) {
+			throw new ClusterCommunicationException("Could not serialize request for " + path, e);
+		} catch(IOException e) {
+			throw new ClusterCommunicationException("Node " + nodeUrl + " is not reachable", e);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ClusterCommunicationException("Interrupted while calling node " + nodeUrl, e);
+		}
+	}
+}
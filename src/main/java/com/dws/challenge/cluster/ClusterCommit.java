@@ -0,0 +1,18 @@
+package com.dws.challenge.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/*
+ * Commit of one side of a decided cross node transfer which still has to be delivered to the node owning the account
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ClusterCommit {
+
+	private final String node;
+
+	private final String transferId;
+}
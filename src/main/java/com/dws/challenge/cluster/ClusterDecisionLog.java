@@ -0,0 +1,195 @@
+package com.dws.challenge.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Append only outbox of commit decisions of cross node transfers coordinated by this node.
+ * Once both sides of a transfer are prepared a DECISION record listing commits of both sides is forced to disk before any side is committed,
+ * every delivered commit is recorded as DELIVERED. On startup the log is replayed and compacted, commits which were
+ * decided but not delivered are returned so that coordinator delivers them again (participants ignore repeated commits).
+ * Log is disabled when no path is configured or when another instance already holds the log lock.
+ */
+@Slf4j
+@Component
+public class ClusterDecisionLog {
+
+	private static final int MAGIC = 0x44574344;
+
+	private static final byte FORMAT_VERSION = 1;
+
+	private static final byte DECISION_RECORD = 1;
+
+	private static final byte DELIVERED_RECORD = 2;
+
+	private final Path logPath;
+
+	private FileChannel lockChannel;
+
+	private FileChannel logChannel;
+
+	private DataOutputStream out;
+
+	public ClusterDecisionLog(@Value("${cluster.decision-log-path:}") String logPath)
+	{
+		this.logPath = logPath == null || logPath.isBlank() ? null : Paths.get(logPath);
+	}
+
+	/*
+	 * Method will replay the log, rewrite it with undelivered commits only and open it for appending
+	 * @returns commits decided but not delivered , in decision order
+	 */
+	public synchronized List<ClusterCommit> open() throws IOException
+	{
+		if(logPath==null || !acquireLock())
+			return new ArrayList<>();
+
+		Map<String, ClusterCommit> undelivered = new LinkedHashMap<>();
+		if(Files.exists(logPath))
+			replay(undelivered);
+
+		Path compacted = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+		try(DataOutputStream tmp = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+			tmp.writeInt(MAGIC);
+			tmp.writeByte(FORMAT_VERSION);
+			for(ClusterCommit commit : undelivered.values())
+				writeDecision(tmp, List.of(commit));
+		}
+		Files.move(compacted, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		logChannel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel), 16 * 1024));
+		log.info("Opened cluster decision log {} with {} undelivered commits", logPath, undelivered.size());
+		return new ArrayList<>(undelivered.values());
+	}
+
+	/*
+	 * Method will record commit decision of a transfer and force it to disk
+	 * @parameter commits:List<ClusterCommit> , one per side
+	 * @returns void
+	 * @throws UncheckedIOException if decision could not be written , then transfer must not be committed
+	 */
+	public synchronized void appendDecision(List<ClusterCommit> commits)
+	{
+		if(out==null)
+			return;
+		try {
+			writeDecision(out, commits);
+			out.flush();
+			logChannel.force(false);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Method will record delivery of a commit, not forced since delivering a commit again is harmless
+	 * @parameter transferId:String
+	 * @returns void
+	 */
+	public synchronized void appendDelivered(String transferId)
+	{
+		if(out==null)
+			return;
+		try {
+			out.writeByte(DELIVERED_RECORD);
+			out.writeUTF(transferId);
+			out.flush();
+		} catch(IOException e) {
+			log.error("Could not record delivery of cluster commit {} {}", transferId, e.getMessage());
+		}
+	}
+
+	public synchronized void close() throws IOException
+	{
+		if(out!=null) {
+			out.close();
+			out=null;
+			logChannel=null;
+		}
+		if(lockChannel!=null) {
+			lockChannel.close();
+			lockChannel=null;
+		}
+	}
+
+	private boolean acquireLock() throws IOException
+	{
+		if(logPath.getParent()!=null)
+			Files.createDirectories(logPath.getParent());
+		FileChannel channel = FileChannel.open(logPath.resolveSibling(logPath.getFileName() + ".lock"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock lock;
+		try {
+			lock = channel.tryLock();
+		} catch(OverlappingFileLockException e) {
+			lock = null;
+		}
+		if(lock==null) {
+			channel.close();
+			log.warn("Cluster decision log {} is in use by another instance, commit decisions will not be persisted", logPath);
+			return false;
+		}
+		lockChannel = channel;
+		return true;
+	}
+
+	private void replay(Map<String, ClusterCommit> undelivered) throws IOException
+	{
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+			if(in.readInt()!=MAGIC || in.readByte()!=FORMAT_VERSION)
+				throw new IOException("Unsupported cluster decision log format " + logPath);
+			while(true) {
+				byte type = in.readByte();
+				if(type==DECISION_RECORD) {
+					// decision is applied only once it is read completely, so a torn decision commits neither side
+					List<ClusterCommit> commits = new ArrayList<>();
+					for(int count = in.readUnsignedShort(); count>0; count--) {
+						String transferId = in.readUTF();
+						commits.add(new ClusterCommit(in.readUTF(), transferId));
+					}
+					commits.forEach(commit -> undelivered.put(commit.getTransferId(), commit));
+				}
+				else if(type==DELIVERED_RECORD)
+					undelivered.remove(in.readUTF());
+				else
+					throw new IOException("Corrupted cluster decision log " + logPath);
+			}
+		} catch(EOFException e) {
+			// end of log, a record torn by a crash is dropped, its decision was never forced so nothing was committed
+		}
+	}
+
+	private static void writeDecision(DataOutputStream out, List<ClusterCommit> commits) throws IOException
+	{
+		out.writeByte(DECISION_RECORD);
+		out.writeShort(commits.size());
+		for(ClusterCommit commit : commits) {
+			out.writeUTF(commit.getTransferId());
+			out.writeUTF(commit.getNode());
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.dws.challenge.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Decides which node of the cluster owns an account, account ids are placed on a consistent hash ring of node urls.
+ * When cluster mode is disabled every account is local.
+ * Nodes authenticate each other on internal endpoints with a shared secret, cluster mode does not start without one.
+ */
+@Slf4j
+@Component
+public class ClusterRouter {
+
+	@Getter
+	private final boolean enabled;
+
+	@Getter
+	private final String selfUrl;
+
+	@Getter
+	private final String sharedSecret;
+
+	private final ConsistentHashRing ring;
+
+	public ClusterRouter(@Value("${cluster.enabled:false}") boolean enabled,
+			@Value("${cluster.self-url:}") String selfUrl,
+			@Value("${cluster.node-urls:}") String[] nodeUrls,
+			@Value("${cluster.virtual-nodes:128}") int virtualNodes,
+			@Value("${cluster.shared-secret:}") String sharedSecret)
+	{
+		this.enabled = enabled;
+		this.selfUrl = selfUrl;
+		this.sharedSecret = sharedSecret;
+		if(!enabled) {
+			this.ring = null;
+			return;
+		}
+		List<String> nodes = Arrays.stream(nodeUrls).map(String::trim).filter(url -> !url.isEmpty()).toList();
+		if(!nodes.contains(selfUrl))
+			throw new IllegalStateException("cluster.self-url " + selfUrl + " is not one of cluster.node-urls " + nodes);
+		if(sharedSecret==null || sharedSecret.isBlank())
+			throw new IllegalStateException("cluster.shared-secret must be set in cluster mode");
+		this.ring = new ConsistentHashRing(nodes, virtualNodes);
+		log.info("Cluster mode enabled, node {} of {}", selfUrl, nodes);
+	}
+
+	public String ownerOf(String accountId)
+	{
+		return enabled ? ring.nodeFor(accountId) : selfUrl;
+	}
+
+	public boolean isLocal(String accountId)
+	{
+		return !enabled || selfUrl.equals(ring.nodeFor(accountId));
+	}
+
+	/*
+	 * Method will decide if request for given account has to be forwarded to its owner
+	 * Requests already forwarded by another node are served locally to avoid forwarding loops, forwarded header is
+	 * trusted only together with the cluster shared secret, so clients can not make a node serve accounts it does not own
+	 * @parameter accountId:String , forwardedBy:String value of forwarded header , presentedSecret:String value of secret header
+	 * @returns true if request should be forwarded
+	 */
+	public boolean shouldForward(String accountId, String forwardedBy, String presentedSecret)
+	{
+		return enabled && accountId!=null && !isLocal(accountId) && (forwardedBy==null || !isClusterNode(presentedSecret));
+	}
+
+	/*
+	 * Method will decide if caller of an internal cluster endpoint is a node of this cluster
+	 * @parameter presentedSecret:String value of secret header (null if missing)
+	 * @returns true if cluster mode is enabled and secret matches
+	 */
+	public boolean isClusterNode(String presentedSecret)
+	{
+		return enabled && presentedSecret!=null && MessageDigest.isEqual(
+				sharedSecret.getBytes(StandardCharsets.UTF_8), presentedSecret.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,29 @@
+package com.dws.challenge.cluster;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * One side of a cross node transfer, sent by the coordinating node to the node owning the account
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ClusterTransferCommand {
+
+	public enum Direction { DEBIT, CREDIT }
+
+	private String transferId;
+
+	private String accountId;
+
+	private BigDecimal amount;
+
+	private Direction direction;
+
+	// node coordinating the transfer, asked for the outcome when prepared side is not committed or aborted in time
+	private String coordinatorUrl;
+}
@@ -0,0 +1,9 @@
+package com.dws.challenge.cluster;
+
+/*
+ * Outcome of a cross node transfer as known by its coordinating node.
+ * A transfer unknown to the coordinator is ABORTED (presumed abort), it was either aborted or never decided.
+ */
+public enum ClusterTransferOutcome {
+	PREPARING, COMMITTED, ABORTED
+}
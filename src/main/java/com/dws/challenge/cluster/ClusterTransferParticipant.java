@@ -0,0 +1,146 @@
+package com.dws.challenge.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.util.Constants;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Node local side of the two phase reserve/commit protocol used for transfers between accounts of different nodes.
+ * Prepare of a debit reserves the amount (balance is reduced but owner is not notified yet),
+ * prepare of a credit only checks the account, credit is applied on commit.
+ * Commit and abort of unknown transfers are ignored so that coordinator can safely retry them.
+ * A side which is neither committed nor aborted within cluster.prepare-timeout-millis asks its coordinator for the outcome
+ * and is committed or aborted (reserved amount given back) accordingly, while coordinator can not be reached it stays prepared.
+ */
+@Slf4j
+@Service
+public class ClusterTransferParticipant {
+
+	private final AccountsService accountsService;
+
+	private final ClusterClient clusterClient;
+
+	private final long prepareTimeoutMillis;
+
+	private final Map<String, PreparedTransfer> prepared = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "cluster-prepare-expiry");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public ClusterTransferParticipant(AccountsService accountsService, ClusterClient clusterClient,
+			@Value("${cluster.prepare-timeout-millis:30000}") long prepareTimeoutMillis)
+	{
+		this.accountsService = accountsService;
+		this.clusterClient = clusterClient;
+		this.prepareTimeoutMillis = prepareTimeoutMillis;
+	}
+
+	@PostConstruct
+	public void start()
+	{
+		long sweepMillis = Math.max(prepareTimeoutMillis / 2, 10);
+		expiryExecutor.scheduleWithFixedDelay(this::resolveExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop()
+	{
+		expiryExecutor.shutdown();
+	}
+
+	/*
+	 * Method will prepare one side of a cross node transfer
+	 * @parameter command:ClusterTransferCommand
+	 * @returns void
+	 * @throws TranserMoneyValidationException if account does not exist or has insufficient balance
+	 */
+	public void prepare(ClusterTransferCommand command) throws TranserMoneyValidationException
+	{
+		Account account = accountsService.getAccount(command.getAccountId());
+		if(account==null)
+			throw new TranserMoneyValidationException(Constants.INVALID_ACCOUNTS_ERROR_MESSAGE);
+		if(prepared.putIfAbsent(command.getTransferId(), new PreparedTransfer(command, System.currentTimeMillis() + prepareTimeoutMillis))!=null)
+			return;
+		try {
+			if(command.getDirection()==ClusterTransferCommand.Direction.DEBIT)
+				accountsService.holdFunds(account, command.getAmount());
+		} catch(RuntimeException e) {
+			prepared.remove(command.getTransferId());
+			throw e;
+		}
+		log.debug("Prepared cluster transfer {}", command);
+	}
+
+	public void commit(String transferId)
+	{
+		PreparedTransfer preparedTransfer = prepared.remove(transferId);
+		if(preparedTransfer==null)
+			return;
+		ClusterTransferCommand command = preparedTransfer.command;
+		Account account = accountsService.getAccount(command.getAccountId());
+		if(command.getDirection()==ClusterTransferCommand.Direction.DEBIT)
+			accountsService.notifyDebit(account, command.getAmount());
+		else
+			accountsService.creditAccount(account, command.getAmount());
+		log.debug("Committed cluster transfer {}", command);
+	}
+
+	public void abort(String transferId)
+	{
+		PreparedTransfer preparedTransfer = prepared.remove(transferId);
+		if(preparedTransfer==null)
+			return;
+		ClusterTransferCommand command = preparedTransfer.command;
+		if(command.getDirection()==ClusterTransferCommand.Direction.DEBIT)
+			accountsService.releaseFunds(accountsService.getAccount(command.getAccountId()), command.getAmount());
+		log.info("Aborted cluster transfer {}", command);
+	}
+
+	private void resolveExpired()
+	{
+		long now = System.currentTimeMillis();
+		for(PreparedTransfer preparedTransfer : prepared.values()) {
+			if(preparedTransfer.expiresAt>now)
+				continue;
+			ClusterTransferCommand command = preparedTransfer.command;
+			try {
+				// coordinator answers ABORTED for transfers it has not decided and from then on will not decide them
+				ClusterTransferOutcome outcome = command.getCoordinatorUrl()==null ? ClusterTransferOutcome.ABORTED
+						: clusterClient.queryOutcome(command.getCoordinatorUrl(), command.getTransferId());
+				log.warn("Prepared cluster transfer {} expired, coordinator outcome {}", command, outcome);
+				if(outcome==ClusterTransferOutcome.COMMITTED)
+					commit(command.getTransferId());
+				else
+					abort(command.getTransferId());
+			} catch(RuntimeException e) {
+				log.error("Could not resolve expired cluster transfer {}, keeping it prepared {}", command.getTransferId(), e.getMessage());
+			}
+		}
+	}
+
+	@AllArgsConstructor
+	private static class PreparedTransfer {
+
+		private final ClusterTransferCommand command;
+
+		private final long expiresAt;
+	}
+}
@@ -0,0 +1,300 @@
+package com.dws.challenge.cluster;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.ClusterCommunicationException;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.tracing.TransferEvent;
+import com.dws.challenge.tracing.TransferTracing;
+import com.dws.challenge.util.Constants;
+import com.dws.challenge.util.MoneyTransferValidator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Entry point for transfers in cluster mode.
+ * Transfers between accounts of this node are processed by AccountsService directly, otherwise this node
+ * coordinates a two phase reserve/commit: debit side is prepared (funds reserved) first, then credit side,
+ * if any prepare fails the prepared side is aborted, once both are prepared the transfer is decided and both
+ * sides are committed, commits which can not be delivered are retried in background until they succeed.
+ * Decision is forced to ClusterDecisionLog before any side is committed and undelivered commits are delivered again after restart.
+ * Participants ask for the outcome of sides left prepared too long, a transfer not decided by then is aborted (presumed abort).
+ */
+@Slf4j
+@Service
+public class ClusterTransferService {
+
+	private static final int COMMIT_ATTEMPTS = 3;
+
+	private final AccountsService accountsService;
+
+	private final ClusterRouter clusterRouter;
+
+	private final ClusterClient clusterClient;
+
+	private final ClusterTransferParticipant participant;
+
+	private final ClusterDecisionLog decisionLog;
+
+	// transfers coordinated by this node until their commits are delivered, by transfer id of each side (sides share one entry)
+	private final Map<String, CoordinatedTransfer> coordinatedTransfers = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService commitRetryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "cluster-commit-retry");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public ClusterTransferService(AccountsService accountsService, ClusterRouter clusterRouter,
+			ClusterClient clusterClient, ClusterTransferParticipant participant, ClusterDecisionLog decisionLog)
+	{
+		this.accountsService = accountsService;
+		this.clusterRouter = clusterRouter;
+		this.clusterClient = clusterClient;
+		this.participant = participant;
+		this.decisionLog = decisionLog;
+	}
+
+	@PostConstruct
+	public void start() throws IOException
+	{
+		if(!clusterRouter.isEnabled())
+			return;
+		for(ClusterCommit commit : decisionLog.open()) {
+			coordinatedTransfers.put(commit.getTransferId(), new CoordinatedTransfer(ClusterTransferOutcome.COMMITTED));
+			log.info("Delivering commit of cluster transfer {} decided before restart", commit);
+			commitRetryExecutor.execute(() -> retryCommit(commit.getNode(), commit.getTransferId()));
+		}
+	}
+
+	@PreDestroy
+	public void stop() throws IOException
+	{
+		commitRetryExecutor.shutdown();
+		decisionLog.close();
+	}
+
+	/*
+	 * Method will tell outcome of a cross node transfer coordinated by this node, asked by participants whose side expired
+	 * A transfer which is still being prepared is aborted, so that it can not be decided after participant gave up on it
+	 * @parameter transferId:String transfer id of one side
+	 * @returns COMMITTED or ABORTED
+	 */
+	public ClusterTransferOutcome resolveOutcome(String transferId)
+	{
+		CoordinatedTransfer coordinatedTransfer = coordinatedTransfers.get(transferId);
+		return coordinatedTransfer==null ? ClusterTransferOutcome.ABORTED : coordinatedTransfer.resolve();
+	}
+
+	/*
+	 * Method will validate accounts of transfer request, accounts owned by other nodes are validated on execution
+	 * @parameter transferRequest:TransferRequest
+	 * @returns void
+	 * @throws TranserMoneyValidationException if any validation error found , ReadOnlyReplicaException on a standby
+	 */
+	public void validateAccounts(TransferRequest transferRequest) throws TranserMoneyValidationException
+	{
+		accountsService.checkWritable();
+		String fromAccountId = transferRequest.getFromAccountId();
+		String toAccountId = transferRequest.getToAccountId();
+		if(isLocalTransfer(fromAccountId, toAccountId)) {
+			MoneyTransferValidator.validateAccounts(accountsService.getAccount(fromAccountId), accountsService.getAccount(toAccountId));
+			return;
+		}
+		if(fromAccountId.equals(toAccountId))
+			throw new TranserMoneyValidationException(Constants.SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE);
+		if((clusterRouter.isLocal(fromAccountId) && accountsService.getAccount(fromAccountId)==null)
+				|| (clusterRouter.isLocal(toAccountId) && accountsService.getAccount(toAccountId)==null))
+			throw new TranserMoneyValidationException(Constants.INVALID_ACCOUNTS_ERROR_MESSAGE);
+	}
+
+	/*
+	 * Method will transfer given amount between accounts, wherever in the cluster they live
+	 * @parameter transferRequest:TransferRequest
+	 * @returns void
+	 * @throws TranserMoneyValidationException if any validation error found
+	 */
+	public void transferMoney(TransferRequest transferRequest) throws TranserMoneyValidationException, Exception
+	{
+		transferMoney(transferRequest, null);
+	}
+
+	/*
+	 * Method will transfer given amount between accounts and will run onCommit once transfer is decided, before it is applied
+	 * For local transfers onCommit runs under account locks after balance validation, for cross node transfers once both sides are prepared,
+	 * an exception thrown by onCommit cancels the transfer
+	 * @parameter transferRequest:TransferRequest , onCommit:Runnable (optional)
+	 * @returns void
+	 * @throws TranserMoneyValidationException if any validation error found
+	 */
+	public void transferMoney(TransferRequest transferRequest, Runnable onCommit) throws TranserMoneyValidationException, Exception
+	{
+		String fromAccountId = transferRequest.getFromAccountId();
+		String toAccountId = transferRequest.getToAccountId();
+		if(isLocalTransfer(fromAccountId, toAccountId)) {
+			accountsService.transferMoney(transferRequest, onCommit);
+			return;
+		}
+		if(fromAccountId.equals(toAccountId))
+			throw new TranserMoneyValidationException(Constants.SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE);
+
+		// local sides are traced by AccountsService as lock and mutation stages, coordination is traced as the transfer itself
+		TransferEvent transferEvent = new TransferEvent();
+		transferEvent.begin();
+		String outcome = TransferTracing.OUTCOME_FAILED;
+		try {
+			coordinateTransfer(transferRequest, onCommit);
+			outcome = TransferTracing.OUTCOME_COMPLETED;
+		} catch(TranserMoneyValidationException e) {
+			outcome = TransferTracing.OUTCOME_REJECTED;
+			throw e;
+		} finally {
+			TransferTracing.commitTransfer(transferEvent, fromAccountId, toAccountId, transferRequest.getAmount(), outcome);
+		}
+	}
+
+	private void coordinateTransfer(TransferRequest transferRequest, Runnable onCommit)
+	{
+		String fromAccountId = transferRequest.getFromAccountId();
+		String toAccountId = transferRequest.getToAccountId();
+		String transferId = UUID.randomUUID().toString();
+		String debitNode = clusterRouter.ownerOf(fromAccountId);
+		String creditNode = clusterRouter.ownerOf(toAccountId);
+		ClusterTransferCommand debit = new ClusterTransferCommand(transferId + "-D", fromAccountId,
+				transferRequest.getAmount(), ClusterTransferCommand.Direction.DEBIT, clusterRouter.getSelfUrl());
+		ClusterTransferCommand credit = new ClusterTransferCommand(transferId + "-C", toAccountId,
+				transferRequest.getAmount(), ClusterTransferCommand.Direction.CREDIT, clusterRouter.getSelfUrl());
+		List<ClusterCommit> commits = List.of(new ClusterCommit(debitNode, debit.getTransferId()),
+				new ClusterCommit(creditNode, credit.getTransferId()));
+
+		CoordinatedTransfer coordinatedTransfer = new CoordinatedTransfer(ClusterTransferOutcome.PREPARING);
+		coordinatedTransfers.put(debit.getTransferId(), coordinatedTransfer);
+		coordinatedTransfers.put(credit.getTransferId(), coordinatedTransfer);
+		try {
+			prepare(debitNode, debit);
+			try {
+				prepare(creditNode, credit);
+				coordinatedTransfer.commit(() -> {
+					if(onCommit!=null)
+						onCommit.run();
+					decisionLog.appendDecision(commits);
+				});
+			} catch(RuntimeException e) {
+				abort(debitNode, debit.getTransferId());
+				throw e;
+			}
+		} catch(RuntimeException e) {
+			coordinatedTransfers.remove(debit.getTransferId());
+			coordinatedTransfers.remove(credit.getTransferId());
+			throw e;
+		}
+
+		// decision is logged, from here transfer can only be committed
+		commit(debitNode, debit.getTransferId());
+		commit(creditNode, credit.getTransferId());
+		log.info("Successfully completed cluster transfer {} request: {}", transferId, transferRequest);
+	}
+
+	private boolean isLocalTransfer(String fromAccountId, String toAccountId)
+	{
+		return clusterRouter.isLocal(fromAccountId) && clusterRouter.isLocal(toAccountId);
+	}
+
+	private void prepare(String node, ClusterTransferCommand command)
+	{
+		if(node.equals(clusterRouter.getSelfUrl()))
+			participant.prepare(command);
+		else
+			clusterClient.call(node, "/v1/internal/cluster/prepare", command);
+	}
+
+	private void abort(String node, String transferId)
+	{
+		try {
+			if(node.equals(clusterRouter.getSelfUrl()))
+				participant.abort(transferId);
+			else
+				clusterClient.call(node, "/v1/internal/cluster/abort/" + transferId, null);
+		} catch(RuntimeException e) {
+			// an undelivered abort leaves the amount reserved on debit node until its prepare expires and this node answers ABORTED
+			log.error("Could not abort cluster transfer {} on {} {}", transferId, node, e.getMessage());
+		}
+	}
+
+	private void commit(String node, String transferId)
+	{
+		for(int attempt=1;attempt<=COMMIT_ATTEMPTS;attempt++) {
+			try {
+				deliverCommit(node, transferId);
+				return;
+			} catch(RuntimeException e) {
+				log.warn("Commit attempt {} of cluster transfer {} on {} failed {}", attempt, transferId, node, e.getMessage());
+			}
+		}
+		commitRetryExecutor.schedule(() -> retryCommit(node, transferId), 1, TimeUnit.SECONDS);
+	}
+
+	private void retryCommit(String node, String transferId)
+	{
+		try {
+			deliverCommit(node, transferId);
+			log.info("Committed cluster transfer {} on {} after retry", transferId, node);
+		} catch(RuntimeException e) {
+			log.error("Commit of cluster transfer {} on {} still failing {}", transferId, node, e.getMessage());
+			commitRetryExecutor.schedule(() -> retryCommit(node, transferId), 1, TimeUnit.SECONDS);
+		}
+	}
+
+	private void deliverCommit(String node, String transferId)
+	{
+		if(node.equals(clusterRouter.getSelfUrl()))
+			participant.commit(transferId);
+		else
+			clusterClient.call(node, "/v1/internal/cluster/commit/" + transferId, null);
+		decisionLog.appendDelivered(transferId);
+		coordinatedTransfers.remove(transferId);
+	}
+
+	/*
+	 * Outcome of a transfer coordinated by this node, decision and answers to participants are serialized on it
+	 * so that a transfer is either decided (and logged) before a participant asks or is aborted for good
+	 */
+	private static class CoordinatedTransfer {
+
+		private ClusterTransferOutcome outcome;
+
+		CoordinatedTransfer(ClusterTransferOutcome outcome)
+		{
+			this.outcome = outcome;
+		}
+
+		synchronized void commit(Runnable decisionRecord)
+		{
+			if(outcome!=ClusterTransferOutcome.PREPARING)
+				throw new ClusterCommunicationException("Cluster transfer expired on a participant before it was decided");
+			// an exception while recording leaves transfer undecided, it is then aborted
+			decisionRecord.run();
+			outcome = ClusterTransferOutcome.COMMITTED;
+		}
+
+		synchronized ClusterTransferOutcome resolve()
+		{
+			if(outcome==ClusterTransferOutcome.PREPARING)
+				outcome = ClusterTransferOutcome.ABORTED;
+			return outcome;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.dws.challenge.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Consistent hash ring placing keys on nodes, every node is placed on the ring as a number of virtual nodes
+ * so that keys spread evenly and only ~1/n of keys move when a node joins or leaves.
+ * Ring is immutable after construction and safe to share between threads.
+ */
+public class ConsistentHashRing {
+
+	private final TreeMap<Long, String> ring = new TreeMap<>();
+
+	public ConsistentHashRing(Collection<String> nodes, int virtualNodes)
+	{
+		if(nodes.isEmpty())
+			throw new IllegalArgumentException("Consistent hash ring needs at least one node");
+		for(String node : nodes)
+			for(int i=0;i<virtualNodes;i++)
+				ring.put(hash(node + "#" + i), node);
+	}
+
+	/*
+	 * Method will return node owning given key, i.e. first virtual node clockwise from hash of key
+	 * @parameter key:String
+	 * @returns node
+	 */
+	public String nodeFor(String key)
+	{
+		Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+		if(entry==null)
+			entry = ring.firstEntry();
+		return entry.getValue();
+	}
+
+	// 64 bit FNV-1a followed by murmur3 finalizer for better avalanche on short similar keys
+	static long hash(String key)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for(byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -1,9 +1,17 @@
 package com.dws.challenge.domain;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
@@ -20,6 +28,26 @@ public class Account {
   @Min(value = 0, message = "Initial balance must be positive.")
   private BigDecimal balance;
 
+  // bumped on every balance change (under account lock), exposed as ETag
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  private volatile long version;
+
+  // serialized form of the account for the version it was built for
+  @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private volatile AccountRepresentation representation;
+
+  // end of day jobs already applied to the account, changed under account lock so that a resumed job never applies twice
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private Set<String> appliedBatchJobs;
+
   public Account(String accountId) {
     this.accountId = accountId;
     this.balance = BigDecimal.ZERO;
@@ -31,4 +59,26 @@ public class Account {
     this.accountId = accountId;
     this.balance = balance;
   }
+
+  public void setBalance(BigDecimal balance) {
+    this.balance = balance;
+    this.version++;
+  }
+
+  public synchronized boolean isBatchJobApplied(String jobId) {
+    return appliedBatchJobs != null && appliedBatchJobs.contains(jobId);
+  }
+
+  public synchronized void markBatchJobApplied(String jobId) {
+    if (appliedBatchJobs == null) {
+      appliedBatchJobs = new HashSet<>(2);
+    }
+    appliedBatchJobs.add(jobId);
+  }
+
+  public synchronized void clearBatchJobApplied(String jobId) {
+    if (appliedBatchJobs != null && appliedBatchJobs.remove(jobId) && appliedBatchJobs.isEmpty()) {
+      appliedBatchJobs = null;
+    }
+  }
 }
@@ -0,0 +1,46 @@
+package com.dws.challenge.domain;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/*
+ * Committed change of one or two accounts, carries balances after the change so that it can be applied idempotently
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccountEvent {
+
+	public enum Type { CREATED, TRANSFERRED, ADJUSTED }
+
+	private final Type type;
+
+	private final String accountId;
+
+	private final BigDecimal balance;
+
+	private final String counterpartyAccountId;
+
+	private final BigDecimal counterpartyBalance;
+
+	private final BigDecimal amount;
+
+	public static AccountEvent created(Account account)
+	{
+		return new AccountEvent(Type.CREATED, account.getAccountId(), account.getBalance(), null, null, null);
+	}
+
+	public static AccountEvent transferred(Account fromAccount, Account toAccount, BigDecimal amount)
+	{
+		return new AccountEvent(Type.TRANSFERRED, fromAccount.getAccountId(), fromAccount.getBalance(),
+				toAccount.getAccountId(), toAccount.getBalance(), amount);
+	}
+
+	public static AccountEvent adjusted(Account account, BigDecimal amount)
+	{
+		return new AccountEvent(Type.ADJUSTED, account.getAccountId(), account.getBalance(), null, null, amount);
+	}
+}
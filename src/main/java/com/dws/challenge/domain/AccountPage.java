@@ -0,0 +1,18 @@
+package com.dws.challenge.domain;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * Page of accounts in account id order, nextCursor is passed as after to fetch next page and is null on last page
+ */
+@Getter
+@AllArgsConstructor
+public class AccountPage {
+
+	private final List<Account> accounts;
+
+	private final String nextCursor;
+}
@@ -0,0 +1,61 @@
+package com.dws.challenge.domain;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+import lombok.Getter;
+
+/*
+ * Serialized JSON of an account at a given version, reused as long as the account does not change
+ * Version only tells whether the cached JSON is current, the ETag is derived from the JSON itself, since versions restart
+ * at 0 for every Account instance (re-created account, restart, failover to a standby, other node of a cluster)
+ */
+@Getter
+public class AccountRepresentation {
+
+	private final long version;
+
+	private final String eTag;
+
+	private final byte[] json;
+
+	public AccountRepresentation(long version, byte[] json)
+	{
+		this.version = version;
+		this.eTag = "\"" + contentHash(json) + "\"";
+		this.json = json;
+	}
+
+	// first 128 bits of SHA-256 of the JSON, URL safe base64
+	private static String contentHash(byte[] json)
+	{
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+		} catch(NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * Method will check if value of If-None-Match header matches this representation
+	 * @parameter ifNoneMatch:String , may hold several (weak) tags or *
+	 * @returns true if client already has this representation
+	 */
+	public boolean matches(String ifNoneMatch)
+	{
+		if(ifNoneMatch==null)
+			return false;
+		for(String tag : ifNoneMatch.split(",")) {
+			String trimmed = tag.trim();
+			if(trimmed.startsWith("W/"))
+				trimmed = trimmed.substring(2);
+			if(trimmed.equals("*") || trimmed.equals(eTag))
+				return true;
+		}
+		return false;
+	}
+}
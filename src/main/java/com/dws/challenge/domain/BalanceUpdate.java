@@ -0,0 +1,20 @@
+package com.dws.challenge.domain;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Balance of an account after a committed change, streamed to subscribers of balance updates
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BalanceUpdate {
+
+	private String accountId;
+
+	private BigDecimal balance;
+}
@@ -0,0 +1,20 @@
+package com.dws.challenge.domain;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TransferBatchRequest {
+
+	@NotEmpty
+	@Size(max = 10000)
+	private List<@Valid TransferRequest> transfers;
+}
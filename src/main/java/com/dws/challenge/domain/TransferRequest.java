@@ -22,4 +22,11 @@ public class TransferRequest {
 	@NotNull
 	@Min(value = 0, message = "Amount to transfer should be positive")
 	private BigDecimal amount;
+	// optional epoch millis at which transfer should be executed, null or past time means immediate execution
+	private Long executionTime;
+	
+	public TransferRequest(String fromAccountId,String toAccountId,BigDecimal amount)
+	{
+		this(fromAccountId,toAccountId,amount,null);
+	}
 }
@@ -0,0 +1,18 @@
+package com.dws.challenge.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Outcome of one transfer of a batch, status is the HTTP status the transfer would get if submitted alone
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TransferResult {
+
+	private int status;
+
+	private String message;
+}
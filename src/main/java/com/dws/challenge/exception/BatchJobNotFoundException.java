@@ -0,0 +1,9 @@
+package com.dws.challenge.exception;
+
+public class BatchJobNotFoundException extends RuntimeException {
+
+	public BatchJobNotFoundException(String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,14 @@
+package com.dws.challenge.exception;
+
+public class ClusterCommunicationException extends RuntimeException {
+
+	public ClusterCommunicationException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+
+	public ClusterCommunicationException(String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,9 @@
+package com.dws.challenge.exception;
+
+public class ReadOnlyReplicaException extends RuntimeException {
+
+	public ReadOnlyReplicaException(String message)
+	{
+		super(message);
+	}
+}
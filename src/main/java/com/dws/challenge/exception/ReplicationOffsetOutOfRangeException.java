@@ -0,0 +1,9 @@
+package com.dws.challenge.exception;
+
+public class ReplicationOffsetOutOfRangeException extends RuntimeException {
+
+	public ReplicationOffsetOutOfRangeException(String message)
+	{
+		super(message);
+	}
+}
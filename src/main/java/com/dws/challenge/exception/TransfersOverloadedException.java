@@ -0,0 +1,9 @@
+package com.dws.challenge.exception;
+
+public class TransfersOverloadedException extends RuntimeException {
+
+	public TransfersOverloadedException(String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,119 @@
+package com.dws.challenge.hotaccounts;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Lock free count-min sketch, estimates weight of a key with a bounded over-estimation and never under-estimates.
+ * Every row is an array of counters updated with atomic adds, estimate is the minimum over the rows.
+ * Row indexes are derived by double hashing from one 64 bit hash of the key seeded randomly per sketch,
+ * so keys colliding in one row rarely collide in the others and clients can not pick ids colliding with a given account.
+ * Adding or estimating allocates nothing, callers updating several sketches of the same seed hash the key once.
+ */
+public class CountMinSketch {
+
+	private static final int MAX_DEPTH = 8;
+
+	private static final long SECOND_HASH_SALT = 0x9e3779b97f4a7c15L;
+
+	private final int depth;
+
+	private final int widthMask;
+
+	private final long seed;
+
+	private final AtomicLongArray counters;
+
+	public CountMinSketch(int depth, int width)
+	{
+		this(depth, width, new SecureRandom().nextLong());
+	}
+
+	public CountMinSketch(int depth, int width, long seed)
+	{
+		if(depth<1 || depth>MAX_DEPTH)
+			throw new IllegalArgumentException("depth should be between 1 and " + MAX_DEPTH);
+		int rowWidth = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+		this.depth = depth;
+		this.widthMask = rowWidth - 1;
+		this.seed = seed;
+		this.counters = new AtomicLongArray(depth * rowWidth);
+	}
+
+	/*
+	 * Method will add weight to key
+	 * @parameter key:String , weight:long
+	 * @returns estimated weight of key after the add
+	 */
+	public long add(String key, long weight)
+	{
+		return add(hash(key), weight);
+	}
+
+	/*
+	 * Method will add weight to a key hashed by hash(String), sketches with the same seed can share the hash of a key
+	 * @parameter keyHash:long , weight:long
+	 * @returns estimated weight of key after the add
+	 */
+	public long add(long keyHash, long weight)
+	{
+		long h1 = mix(keyHash);
+		long h2 = mix(keyHash ^ SECOND_HASH_SALT) | 1;
+		long estimate = Long.MAX_VALUE;
+		for(int row=0;row<depth;row++)
+			estimate = Math.min(estimate, counters.addAndGet(index(h1, h2, row), weight));
+		return estimate;
+	}
+
+	public long estimate(String key)
+	{
+		return estimate(hash(key));
+	}
+
+	public long estimate(long keyHash)
+	{
+		long h1 = mix(keyHash);
+		long h2 = mix(keyHash ^ SECOND_HASH_SALT) | 1;
+		long estimate = Long.MAX_VALUE;
+		for(int row=0;row<depth;row++)
+			estimate = Math.min(estimate, counters.get(index(h1, h2, row)));
+		return estimate;
+	}
+
+	// halves every counter, called periodically it turns counts into an exponentially decaying window
+	public void decay()
+	{
+		for(int i=0;i<counters.length();i++)
+			counters.getAndUpdate(i, value -> value >>> 1);
+	}
+
+	/*
+	 * Method will hash key chars in one seeded pass, murmur3 style rounds
+	 * Row hashes are derived from it by two finalizers, so the key is read once whatever the depth
+	 * @parameter key:String
+	 * @returns 64 bit hash of key for this sketch's seed
+	 */
+	public long hash(String key)
+	{
+		long hash = seed;
+		for(int i=0;i<key.length();i++)
+			hash = Long.rotateLeft(hash ^ (key.charAt(i) * 0x87c37b91114253d5L), 31) * 0x4cf5ad432745937fL;
+		return hash ^ key.length();
+	}
+
+	// row i uses h1 + i * h2 (h2 odd), double hashing keeps count-min error bounds with two hashes only
+	private int index(long h1, long h2, int row)
+	{
+		long hash = h1 + row * h2;
+		return row * (widthMask + 1) + ((int) (hash >>> 32) & widthMask);
+	}
+
+	private static long mix(long hash)
+	{
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+}
@@ -0,0 +1,115 @@
+package com.dws.challenge.hotaccounts;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * Top-K heavy hitters of one weight (request count, lock wait time), backed by a count-min sketch.
+ * Keys whose estimate reaches the current K-th largest estimate become candidates, candidates are trimmed back to K
+ * on every decay, so the hot path costs the sketch update plus a map put only for keys which are actually hot.
+ * When candidates are full a heavier key replaces the lightest one, so keys first seen after the set filled up still get in.
+ */
+public class HeavyHitters {
+
+	private final CountMinSketch sketch;
+
+	private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+	private final int topK;
+
+	private final int maxCandidates;
+
+	private volatile long threshold;
+
+	public HeavyHitters(int topK, int sketchDepth, int sketchWidth)
+	{
+		this(topK, sketchDepth, sketchWidth, new SecureRandom().nextLong());
+	}
+
+	// heavy hitters built with the same seed accept the same key hashes
+	public HeavyHitters(int topK, int sketchDepth, int sketchWidth, long seed)
+	{
+		this.sketch = new CountMinSketch(sketchDepth, sketchWidth, seed);
+		this.topK = topK;
+		this.maxCandidates = topK * 8;
+	}
+
+	public long hash(String key)
+	{
+		return sketch.hash(key);
+	}
+
+	public void add(String key, long weight)
+	{
+		add(key, sketch.hash(key), weight);
+	}
+
+	public void add(String key, long keyHash, long weight)
+	{
+		long estimate = sketch.add(keyHash, weight);
+		if(estimate<threshold)
+			return;
+		if(candidates.size()<maxCandidates || candidates.containsKey(key))
+			candidates.put(key, estimate);
+		else
+			replaceLightest(key, estimate);
+	}
+
+	/*
+	 * Method will let a key into full candidates in place of the candidate with the lowest recorded estimate, if it is heavier
+	 * Threshold is raised to the lowest recorded estimate, so lighter keys are turned away without coming here again
+	 * @parameter key:String , estimate:long
+	 * @returns void
+	 */
+	private synchronized void replaceLightest(String key, long estimate)
+	{
+		Map.Entry<String, Long> lightest = null;
+		for(Map.Entry<String, Long> candidate : candidates.entrySet())
+			if(lightest==null || candidate.getValue()<lightest.getValue())
+				lightest = candidate;
+		if(lightest==null || estimate<=lightest.getValue()) {
+			threshold = lightest==null ? threshold : lightest.getValue() + 1;
+			return;
+		}
+		candidates.remove(lightest.getKey());
+		candidates.put(key, estimate);
+	}
+
+	/*
+	 * Method will halve all weights and trim candidates to the current top K
+	 * @returns void
+	 */
+	public synchronized void decay()
+	{
+		sketch.decay();
+		List<Entry> top = top();
+		candidates.keySet().retainAll(top.stream().map(Entry::getKey).toList());
+		threshold = top.size()<topK ? 0 : top.get(top.size()-1).getWeight();
+	}
+
+	// current top K ordered by descending estimated weight
+	public List<Entry> top()
+	{
+		List<Entry> entries = new ArrayList<>();
+		for(String key : candidates.keySet())
+			entries.add(new Entry(key, sketch.estimate(key)));
+		entries.sort(Comparator.comparingLong(Entry::getWeight).reversed());
+		return entries.size()>topK ? new ArrayList<>(entries.subList(0, topK)) : entries;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Entry {
+
+		private final String key;
+
+		private final long weight;
+	}
+}
@@ -0,0 +1,154 @@
+package com.dws.challenge.hotaccounts;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+
+/*
+ * Tracks accounts involved in transfers, weighted by number of transfers and by time spent waiting on account locks.
+ * Weights decay by half every decay interval, so results describe a recent exponentially decaying window.
+ * Every thread sums its records per account in a small buffer and merges them into the shared sketches once a buffer
+ * slot is needed by another account or every PENDING_RECORDS records, so a hot account costs one atomic add per sketch
+ * row per merge instead of per transfer. Reports miss at most PENDING_RECORDS records of every recording thread.
+ */
+@Component
+public class HotAccountTracker {
+
+	private static final int PENDING_SLOTS = 16;
+
+	private static final int PENDING_RECORDS = 64;
+
+	@Getter
+	private final boolean enabled;
+
+	@Getter
+	private final long decayIntervalMillis;
+
+	private final HeavyHitters byRequests;
+
+	private final HeavyHitters byLockWait;
+
+	private final ThreadLocal<PendingWeights> pendingWeights = ThreadLocal.withInitial(PendingWeights::new);
+
+	private ScheduledExecutorService decayExecutor;
+
+	public HotAccountTracker(@Value("${hotaccounts.enabled:true}") boolean enabled,
+			@Value("${hotaccounts.top-k:20}") int topK,
+			@Value("${hotaccounts.sketch-depth:4}") int sketchDepth,
+			@Value("${hotaccounts.sketch-width:4096}") int sketchWidth,
+			@Value("${hotaccounts.decay-interval-millis:10000}") long decayIntervalMillis)
+	{
+		this.enabled = enabled;
+		this.decayIntervalMillis = decayIntervalMillis;
+		// same seed for both, so an account id is hashed once for both sketches
+		long seed = new SecureRandom().nextLong();
+		this.byRequests = new HeavyHitters(topK, sketchDepth, sketchWidth, seed);
+		this.byLockWait = new HeavyHitters(topK, sketchDepth, sketchWidth, seed);
+	}
+
+	@PostConstruct
+	public void start()
+	{
+		if(!enabled)
+			return;
+		decayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "hot-account-decay");
+			thread.setDaemon(true);
+			return thread;
+		});
+		decayExecutor.scheduleAtFixedRate(this::decay, decayIntervalMillis, decayIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop()
+	{
+		if(decayExecutor!=null)
+			decayExecutor.shutdown();
+	}
+
+	/*
+	 * Method will record one transfer touching given account and the time spent waiting for its lock
+	 * @parameter accountId:String , lockWaitNanos:long
+	 * @returns void
+	 */
+	public void record(String accountId, long lockWaitNanos)
+	{
+		if(!enabled)
+			return;
+		PendingWeights pending = pendingWeights.get();
+		long keyHash = byRequests.hash(accountId);
+		// top bits of the hash are the best mixed ones
+		int slot = (int) (keyHash >>> 60) & (PENDING_SLOTS - 1);
+		if(pending.accountIds[slot]!=null && !pending.accountIds[slot].equals(accountId))
+			merge(pending, slot);
+		pending.accountIds[slot] = accountId;
+		pending.keyHashes[slot] = keyHash;
+		pending.requests[slot]++;
+		if(lockWaitNanos>0)
+			pending.lockWaitNanos[slot] += lockWaitNanos;
+		if(++pending.records>=PENDING_RECORDS)
+			flush();
+	}
+
+	/*
+	 * Method will merge records buffered by the calling thread into the shared sketches
+	 * @returns void
+	 */
+	public void flush()
+	{
+		PendingWeights pending = pendingWeights.get();
+		for(int slot=0;slot<PENDING_SLOTS;slot++)
+			if(pending.accountIds[slot]!=null)
+				merge(pending, slot);
+		pending.records = 0;
+	}
+
+	private void merge(PendingWeights pending, int slot)
+	{
+		byRequests.add(pending.accountIds[slot], pending.keyHashes[slot], pending.requests[slot]);
+		if(pending.lockWaitNanos[slot]>0)
+			byLockWait.add(pending.accountIds[slot], pending.keyHashes[slot], pending.lockWaitNanos[slot]);
+		pending.accountIds[slot] = null;
+		pending.requests[slot] = 0;
+		pending.lockWaitNanos[slot] = 0;
+	}
+
+	public List<HeavyHitters.Entry> topByRequests()
+	{
+		return byRequests.top();
+	}
+
+	public List<HeavyHitters.Entry> topByLockWaitNanos()
+	{
+		return byLockWait.top();
+	}
+
+	public void decay()
+	{
+		byRequests.decay();
+		byLockWait.decay();
+	}
+
+	// records of one thread not merged yet, direct mapped by key hash
+	private static class PendingWeights {
+
+		private final String[] accountIds = new String[PENDING_SLOTS];
+
+		private final long[] keyHashes = new long[PENDING_SLOTS];
+
+		private final long[] requests = new long[PENDING_SLOTS];
+
+		private final long[] lockWaitNanos = new long[PENDING_SLOTS];
+
+		private int records;
+	}
+}
@@ -0,0 +1,37 @@
+package com.dws.challenge.hotaccounts;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/*
+ * Actuator endpoint /actuator/hotaccounts listing accounts with most transfers and most lock wait time
+ */
+@Component
+@Endpoint(id = "hotaccounts")
+public class HotAccountsEndpoint {
+
+	private final HotAccountTracker hotAccountTracker;
+
+	public HotAccountsEndpoint(HotAccountTracker hotAccountTracker)
+	{
+		this.hotAccountTracker = hotAccountTracker;
+	}
+
+	@ReadOperation
+	public Map<String, Object> hotAccounts()
+	{
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("enabled", hotAccountTracker.isEnabled());
+		report.put("halfLifeMillis", hotAccountTracker.getDecayIntervalMillis());
+		report.put("byTransfers", hotAccountTracker.topByRequests().stream()
+				.map(entry -> Map.of("accountId", entry.getKey(), "transfers", entry.getWeight())).toList());
+		report.put("byLockWait", hotAccountTracker.topByLockWaitNanos().stream()
+				.map(entry -> Map.of("accountId", entry.getKey(), "lockWaitMillis", entry.getWeight() / 1_000_000.0)).toList());
+		return report;
+	}
+}
@@ -0,0 +1,195 @@
+package com.dws.challenge.netting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.cluster.ClusterRouter;
+import com.dws.challenge.cluster.ClusterTransferService;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.service.AccountsService;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Optional netting of transfers between the same pair of accounts (netting.enabled).
+ * A transfer opens a group for its account pair which stays open for netting.window-millis, transfers of the same pair
+ * in either direction arriving meanwhile join the group, transfers of one batch submission are grouped right away.
+ * Every group is applied by AccountsService.transferMoneyNetted with one lock acquisition and one event, callers still
+ * get their own outcome. The transfer which opened a group waits for the window and applies the group on its own thread,
+ * so groups of different pairs never queue behind each other on a shared pool. Transfers touching accounts of other nodes are never netted.
+ */
+@Slf4j
+@Service
+public class TransferNettingService {
+
+	private final AccountsService accountsService;
+
+	private final ClusterTransferService clusterTransferService;
+
+	private final ClusterRouter clusterRouter;
+
+	@Getter
+	private final boolean enabled;
+
+	private final long windowNanos;
+
+	private final Map<String, NettingGroup> openGroups = new ConcurrentHashMap<>();
+
+	public TransferNettingService(AccountsService accountsService, ClusterTransferService clusterTransferService, ClusterRouter clusterRouter,
+			@Value("${netting.enabled:false}") boolean enabled,
+			@Value("${netting.window-millis:5}") long windowMillis)
+	{
+		this.accountsService = accountsService;
+		this.clusterTransferService = clusterTransferService;
+		this.clusterRouter = clusterRouter;
+		this.enabled = enabled;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+	}
+
+	/*
+	 * Method will transfer money, netted with other transfers of the same account pair if netting is enabled
+	 * Caller waits at most the netting window plus processing of its group
+	 * @parameter transferRequest:TransferRequest
+	 * @returns void
+	 * @throws TranserMoneyValidationException if any validation error found
+	 */
+	public void transferMoney(TransferRequest transferRequest) throws TranserMoneyValidationException, Exception
+	{
+		if(!isNettable(transferRequest)) {
+			clusterTransferService.transferMoney(transferRequest);
+			return;
+		}
+		String key = pairKey(transferRequest);
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		NettingGroup group = join(key, transferRequest, result);
+		if(group.opener==result) {
+			awaitWindow();
+			openGroups.remove(key, group);
+			apply(group);
+		}
+		try {
+			result.join();
+		} catch(CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	/*
+	 * Method will transfer money for every request of a batch, requests of the same account pair are netted together
+	 * @parameter transferRequests:List<TransferRequest>
+	 * @returns outcome per request, in request order , completed once method returns
+	 */
+	public List<CompletableFuture<Void>> transferMoney(List<TransferRequest> transferRequests)
+	{
+		List<CompletableFuture<Void>> results = new ArrayList<>(transferRequests.size());
+		Map<String, NettingGroup> groups = new LinkedHashMap<>();
+		for(TransferRequest transferRequest : transferRequests) {
+			if(!isNettable(transferRequest)) {
+				results.add(transferIndividually(transferRequest));
+				continue;
+			}
+			CompletableFuture<Void> result = new CompletableFuture<>();
+			groups.computeIfAbsent(pairKey(transferRequest), key -> new NettingGroup(null)).add(transferRequest, result);
+			results.add(result);
+		}
+		for(NettingGroup group : groups.values())
+			apply(group);
+		return results;
+	}
+
+	// adds request to the open group of its pair, opening one if there is none
+	private NettingGroup join(String key, TransferRequest transferRequest, CompletableFuture<Void> result)
+	{
+		// groups are only touched inside compute for their key, so a group removed for applying gets no more requests
+		return openGroups.compute(key, (pair, group) -> {
+			if(group==null)
+				group = new NettingGroup(result);
+			group.add(transferRequest, result);
+			return group;
+		});
+	}
+
+	// an interrupted opener applies its group right away
+	private void awaitWindow()
+	{
+		long deadline = System.nanoTime() + windowNanos;
+		for(long remaining=windowNanos;remaining>0;remaining=deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+			if(Thread.currentThread().isInterrupted())
+				return;
+		}
+	}
+
+	private void apply(NettingGroup group)
+	{
+		try {
+			TranserMoneyValidationException[] rejections = accountsService.transferMoneyNetted(group.transferRequests);
+			for(int i=0;i<rejections.length;i++) {
+				if(rejections[i]==null)
+					group.results.get(i).complete(null);
+				else
+					group.results.get(i).completeExceptionally(rejections[i]);
+			}
+		} catch(RuntimeException e) {
+			log.error("Netted transfers of {} requests failed {}", group.transferRequests.size(), e.getMessage());
+			for(CompletableFuture<Void> result : group.results)
+				result.completeExceptionally(e);
+		}
+	}
+
+	private CompletableFuture<Void> transferIndividually(TransferRequest transferRequest)
+	{
+		try {
+			clusterTransferService.transferMoney(transferRequest);
+			return CompletableFuture.completedFuture(null);
+		} catch(Exception e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private boolean isNettable(TransferRequest transferRequest)
+	{
+		return enabled && clusterRouter.isLocal(transferRequest.getFromAccountId()) && clusterRouter.isLocal(transferRequest.getToAccountId());
+	}
+
+	// same key for both directions of a pair
+	private static String pairKey(TransferRequest transferRequest)
+	{
+		String fromAccountId = transferRequest.getFromAccountId();
+		String toAccountId = transferRequest.getToAccountId();
+		return fromAccountId.compareTo(toAccountId)<0 ? fromAccountId + '\n' + toAccountId : toAccountId + '\n' + fromAccountId;
+	}
+
+	private static class NettingGroup {
+
+		// result of the transfer which opened the group and applies it, null for groups of a batch submission
+		private final CompletableFuture<Void> opener;
+
+		private final List<TransferRequest> transferRequests = new ArrayList<>();
+
+		private final List<CompletableFuture<Void>> results = new ArrayList<>();
+
+		private NettingGroup(CompletableFuture<Void> opener)
+		{
+			this.opener = opener;
+		}
+
+		private void add(TransferRequest transferRequest, CompletableFuture<Void> result)
+		{
+			transferRequests.add(transferRequest);
+			results.add(result);
+		}
+	}
+}
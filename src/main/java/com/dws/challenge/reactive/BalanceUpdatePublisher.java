@@ -0,0 +1,79 @@
+package com.dws.challenge.reactive;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountEvent;
+import com.dws.challenge.domain.BalanceUpdate;
+import com.dws.challenge.service.AccountEventListener;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/*
+ * Streams balance updates of watched accounts to reactive subscribers.
+ * Events are handed over under account locks, for every subscriber only the latest balance is kept while it is not
+ * ready for more (slow clients skip intermediate balances instead of buffering them), delivery to the client happens on
+ * a parallel scheduler thread. No thread is held per subscriber, accounts nobody watches cost a map lookup per event.
+ * Registration takes the account lock and may wait for a running transfer, so it runs on a bounded elastic thread, never on the event loop.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BalanceUpdatePublisher implements AccountEventListener {
+
+	private final Map<String, List<FluxSink<BalanceUpdate>>> subscribers = new ConcurrentHashMap<>();
+
+	@Override
+	public void onAccountEvent(AccountEvent event)
+	{
+		publish(event.getAccountId(), event.getBalance());
+		if(event.getType()==AccountEvent.Type.TRANSFERRED)
+			publish(event.getCounterpartyAccountId(), event.getCounterpartyBalance());
+	}
+
+	/*
+	 * Method will stream balance of account, starting with current balance
+	 * Subscriber is registered under the account lock (on a bounded elastic thread), so no update between current balance and following updates is missed
+	 * @parameter account:Account
+	 * @returns endless stream of balance updates
+	 */
+	public Flux<BalanceUpdate> balanceUpdates(Account account)
+	{
+		String accountId = account.getAccountId();
+		return Flux.<BalanceUpdate>create(sink -> {
+			synchronized(account)
+			{
+				sink.next(new BalanceUpdate(accountId, account.getBalance()));
+				subscribers.compute(accountId, (key, sinks) -> {
+					List<FluxSink<BalanceUpdate>> registered = sinks==null ? new CopyOnWriteArrayList<>() : sinks;
+					registered.add(sink);
+					return registered;
+				});
+			}
+			sink.onDispose(() -> subscribers.computeIfPresent(accountId, (key, sinks) -> {
+				sinks.remove(sink);
+				return sinks.isEmpty() ? null : sinks;
+			}));
+		}, FluxSink.OverflowStrategy.LATEST)
+				.subscribeOn(Schedulers.boundedElastic(), false)
+				.publishOn(Schedulers.parallel(), 1);
+	}
+
+	private void publish(String accountId, BigDecimal balance)
+	{
+		List<FluxSink<BalanceUpdate>> sinks = subscribers.get(accountId);
+		if(sinks==null)
+			return;
+		BalanceUpdate update = new BalanceUpdate(accountId, balance);
+		for(FluxSink<BalanceUpdate> sink : sinks)
+			sink.next(update);
+	}
+}
@@ -0,0 +1,29 @@
+package com.dws.challenge.reactive;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Reactive deployment runs on Netty. Tomcat is on the classpath for the servlet deployment and Spring Boot prefers it
+ * for a reactive application too, so the Netty server factory is declared here and the Tomcat one backs off.
+ * The reactive jar (gradle bootJarReactive) leaves Tomcat out altogether.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfiguration {
+
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyRouteProvider> routes,
+			ObjectProvider<NettyServerCustomizer> serverCustomizers)
+	{
+		NettyReactiveWebServerFactory serverFactory = new NettyReactiveWebServerFactory();
+		routes.orderedStream().forEach(serverFactory::addRouteProviders);
+		serverCustomizers.orderedStream().forEach(serverFactory::addServerCustomizers);
+		return serverFactory;
+	}
+}
@@ -0,0 +1,97 @@
+package com.dws.challenge.reactive;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.domain.TransferResult;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.service.TransferBatchService;
+import com.dws.challenge.util.Constants;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+
+/*
+ * Non blocking facade of transfers for the reactive API.
+ * Transfers wait on account monitors, so they never run on event loop threads but on a bounded executor
+ * (reactive.transfer-threads threads, reactive.transfer-queue-capacity queued tasks). When it is full work is refused
+ * right away with TransfersOverloadedException instead of queueing without bound, callers answer it with 503.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransferFacade {
+
+	private final TransferBatchService transferBatchService;
+
+	private final ThreadPoolExecutor executor;
+
+	public ReactiveTransferFacade(TransferBatchService transferBatchService,
+			@Value("${reactive.transfer-threads:16}") int transferThreads,
+			@Value("${reactive.transfer-queue-capacity:1024}") int queueCapacity)
+	{
+		this.transferBatchService = transferBatchService;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(transferThreads, transferThreads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "reactive-transfer-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException
+	{
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	/*
+	 * Method will process a transfer on the bounded executor
+	 * @parameter transferRequest:TransferRequest
+	 * @returns Mono completing with outcome of transfer , TransfersOverloadedException if executor is full
+	 */
+	public Mono<TransferResult> transferMoney(TransferRequest transferRequest)
+	{
+		return submit(() -> transferBatchService.transferMoney(transferRequest));
+	}
+
+	public Mono<List<TransferResult>> transferMoney(List<TransferRequest> transferRequests)
+	{
+		return submit(() -> transferBatchService.transferMoney(transferRequests));
+	}
+
+	/*
+	 * Method will run blocking work on the bounded executor, work not started yet is dropped when subscriber cancels
+	 * @parameter task:Callable<T>
+	 * @returns Mono completing with result of task , TransfersOverloadedException if executor is full
+	 */
+	public <T> Mono<T> submit(Callable<T> task)
+	{
+		return Mono.create(sink -> {
+			try {
+				Future<?> future = executor.submit(() -> {
+					try {
+						sink.success(task.call());
+					} catch(Throwable e) {
+						sink.error(e);
+					}
+				});
+				sink.onCancel(() -> future.cancel(false));
+			} catch(RejectedExecutionException e) {
+				sink.error(new TransfersOverloadedException(Constants.TRANSFERS_OVERLOADED_ERROR_MESSAGE));
+			}
+		});
+	}
+}
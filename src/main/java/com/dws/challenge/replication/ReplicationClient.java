@@ -0,0 +1,185 @@
+package com.dws.challenge.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.Socket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountEvent;
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.service.AccountsService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Standby side of replication, applies events streamed by the primary to the local repository in offset order.
+ * Balances are set to the values carried by the events, so applying an event twice is harmless.
+ * On disconnect it reconnects and continues from the next offset it needs, when the primary no longer retains it
+ * (or on first connection after the primary log wrapped) the standby gets a snapshot of balances and continues from its offset.
+ * Balances are consistent once events up to the primary head at the end of the snapshot are applied.
+ * Writes through AccountsService are rejected on a standby until it is promoted, promotion stops replication for good.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "standby")
+public class ReplicationClient {
+
+	private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+	private final AccountsService accountsService;
+
+	private final AccountsRepository accountsRepository;
+
+	private final MeterRegistry meterRegistry;
+
+	private final String primaryHost;
+
+	private final int primaryPort;
+
+	@Getter
+	private volatile long nextOffset;
+
+	@Getter
+	private volatile long primaryHeadOffset;
+
+	private volatile boolean running;
+
+	@Getter
+	private volatile boolean promoted;
+
+	private volatile Socket socket;
+
+	private Thread replicationThread;
+
+	public ReplicationClient(AccountsService accountsService, MeterRegistry meterRegistry,
+			@Value("${replication.primary-host:127.0.0.1}") String primaryHost,
+			@Value("${replication.port:19090}") int primaryPort)
+	{
+		this.accountsService = accountsService;
+		this.accountsRepository = accountsService.getAccountsRepository();
+		this.meterRegistry = meterRegistry;
+		this.primaryHost = primaryHost;
+		this.primaryPort = primaryPort;
+	}
+
+	@PostConstruct
+	public void start()
+	{
+		running = true;
+		Gauge.builder("replication.standby.next.offset", this, ReplicationClient::getNextOffset)
+				.description("Next offset standby needs from primary").register(meterRegistry);
+		Gauge.builder("replication.standby.lag.events", this, client -> Math.max(0, client.primaryHeadOffset - client.nextOffset))
+				.description("Events committed on primary and not yet applied").register(meterRegistry);
+		replicationThread = new Thread(this::replicate, "replication-standby");
+		replicationThread.setDaemon(true);
+		replicationThread.start();
+	}
+
+	@PreDestroy
+	public void stop() throws IOException
+	{
+		running = false;
+		if(socket!=null)
+			socket.close();
+	}
+
+	/*
+	 * Method will stop replication and let AccountsService accept writes, used when traffic is switched to this node
+	 * Events committed on the primary and not yet applied (replication.standby.lag.events) are lost
+	 * @returns void
+	 */
+	public synchronized void promote() throws IOException, InterruptedException
+	{
+		if(promoted)
+			return;
+		stop();
+		// last batch is applied before writes are accepted
+		replicationThread.join();
+		promoted = true;
+		accountsService.acceptWrites();
+		log.info("Standby promoted at offset {}, primary head offset was {}", nextOffset, primaryHeadOffset);
+	}
+
+	private void replicate()
+	{
+		while(running) {
+			try(Socket connection = new Socket(primaryHost, primaryPort)) {
+				socket = connection;
+				connection.setTcpNoDelay(true);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), 64 * 1024));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+				out.writeLong(nextOffset);
+				out.flush();
+				log.info("Connected to primary {}:{}, replicating from offset {}", primaryHost, primaryPort, nextOffset);
+				while(running) {
+					int count = in.readInt();
+					if(count==ReplicationProtocol.SNAPSHOT) {
+						long snapshotOffset = in.readLong();
+						int accounts = ReplicationProtocol.readSnapshot(in, this::setBalance);
+						nextOffset = snapshotOffset;
+						primaryHeadOffset = snapshotOffset;
+						log.info("Applied snapshot of {} accounts, replicating from offset {}", accounts, snapshotOffset);
+					} else {
+						primaryHeadOffset = in.readLong();
+						for(int i=0;i<count;i++)
+							apply(ReplicationProtocol.readRecord(in));
+					}
+					out.writeLong(nextOffset);
+					out.flush();
+				}
+			} catch(IOException e) {
+				if(running) {
+					log.warn("Replication from primary {}:{} interrupted {}", primaryHost, primaryPort, e.getMessage());
+					sleepBeforeReconnect();
+				}
+			}
+		}
+	}
+
+	private void apply(ReplicationRecord record)
+	{
+		if(record.getOffset()<nextOffset)
+			return;
+		AccountEvent event = record.getEvent();
+		setBalance(event.getAccountId(), event.getBalance());
+		if(event.getType()==AccountEvent.Type.TRANSFERRED)
+			setBalance(event.getCounterpartyAccountId(), event.getCounterpartyBalance());
+		nextOffset = record.getOffset() + 1;
+	}
+
+	private void setBalance(String accountId, BigDecimal balance)
+	{
+		Account account = accountsRepository.getAccount(accountId);
+		if(account==null) {
+			accountsRepository.createAccount(new Account(accountId, balance));
+			return;
+		}
+		synchronized(account)
+		{
+			account.setBalance(balance);
+		}
+	}
+
+	private void sleepBeforeReconnect()
+	{
+		try {
+			Thread.sleep(RECONNECT_DELAY_MILLIS);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			running = false;
+		}
+	}
+}
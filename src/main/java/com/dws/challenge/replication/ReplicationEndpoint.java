@@ -0,0 +1,45 @@
+package com.dws.challenge.replication;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+ * Actuator endpoint /actuator/replication of a standby, GET shows replication progress and POST promotes the standby
+ * so that it accepts writes once traffic is switched to it
+ */
+@Component
+@Endpoint(id = "replication")
+@ConditionalOnProperty(name = "replication.role", havingValue = "standby")
+public class ReplicationEndpoint {
+
+	private final ReplicationClient replicationClient;
+
+	public ReplicationEndpoint(ReplicationClient replicationClient)
+	{
+		this.replicationClient = replicationClient;
+	}
+
+	@ReadOperation
+	public Map<String, Object> replication()
+	{
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("promoted", replicationClient.isPromoted());
+		report.put("nextOffset", replicationClient.getNextOffset());
+		report.put("primaryHeadOffset", replicationClient.getPrimaryHeadOffset());
+		return report;
+	}
+
+	@WriteOperation
+	public Map<String, Object> promote() throws IOException, InterruptedException
+	{
+		replicationClient.promote();
+		return replication();
+	}
+}
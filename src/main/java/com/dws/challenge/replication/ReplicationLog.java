@@ -0,0 +1,68 @@
+package com.dws.challenge.replication;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.dws.challenge.domain.AccountEvent;
+import com.dws.challenge.exception.ReplicationOffsetOutOfRangeException;
+import com.dws.challenge.service.AccountEventListener;
+
+/*
+ * In memory log of committed account events on the primary, kept in a ring buffer indexed by offset.
+ * Offsets are taken while account locks are held, so offset order is commit order of every account.
+ * Appending is lock free and costs an atomic increment and one store, standbys read the log from their own offset
+ * and can catch up as long as their offset was not overwritten yet, i.e. is within the last capacity events.
+ */
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "primary")
+public class ReplicationLog implements AccountEventListener {
+
+	private final AtomicReferenceArray<ReplicationRecord> ring;
+
+	private final int mask;
+
+	private final AtomicLong nextOffset = new AtomicLong();
+
+	public ReplicationLog(@Value("${replication.log-capacity:1048576}") int capacity)
+	{
+		int ringSize = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.ring = new AtomicReferenceArray<>(ringSize);
+		this.mask = ringSize - 1;
+	}
+
+	@Override
+	public void onAccountEvent(AccountEvent event)
+	{
+		long offset = nextOffset.getAndIncrement();
+		ring.lazySet((int) (offset & mask), new ReplicationRecord(offset, event));
+	}
+
+	// offset which will be given to next appended event
+	public long headOffset()
+	{
+		return nextOffset.get();
+	}
+
+	/*
+	 * Method will copy published records starting at given offset into batch, stops at first record not yet published
+	 * @parameter fromOffset:long , batch:List , maxRecords:int
+	 * @returns void
+	 * @throws ReplicationOffsetOutOfRangeException if fromOffset was already overwritten
+	 */
+	public void read(long fromOffset, List<ReplicationRecord> batch, int maxRecords)
+	{
+		for(long offset=fromOffset;batch.size()<maxRecords;offset++) {
+			ReplicationRecord record = ring.get((int) (offset & mask));
+			if(record==null || record.getOffset()<offset)
+				return;
+			if(record.getOffset()>offset)
+				throw new ReplicationOffsetOutOfRangeException("Replication offset " + offset + " is no longer retained, head is " + headOffset());
+			batch.add(record);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.dws.challenge.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.dws.challenge.domain.AccountEvent;
+
+/*
+ * Wire format between primary and standby.
+ * Standby starts by sending the next offset it needs and then acknowledges every applied batch with its next offset.
+ * Primary sends batches : record count, primary head offset and records.
+ * When the requested offset is no longer retained the primary sends a snapshot instead : count of -2, the log offset
+ * the snapshot was started at and account id / balance entries, each preceded by true and followed by false.
+ */
+final class ReplicationProtocol {
+
+	static final int SNAPSHOT = -2;
+
+	private ReplicationProtocol()
+	{
+	}
+
+	static void writeBatch(DataOutputStream out, List<ReplicationRecord> batch, long headOffset) throws IOException
+	{
+		out.writeInt(batch.size());
+		out.writeLong(headOffset);
+		for(ReplicationRecord record : batch)
+			writeRecord(out, record);
+	}
+
+	static void writeSnapshotStart(DataOutputStream out, long snapshotOffset) throws IOException
+	{
+		out.writeInt(SNAPSHOT);
+		out.writeLong(snapshotOffset);
+	}
+
+	static void writeSnapshotEntry(DataOutputStream out, String accountId, BigDecimal balance) throws IOException
+	{
+		out.writeBoolean(true);
+		out.writeUTF(accountId);
+		writeDecimal(out, balance);
+	}
+
+	static void writeSnapshotEnd(DataOutputStream out) throws IOException
+	{
+		out.writeBoolean(false);
+		out.flush();
+	}
+
+	/*
+	 * Method will read snapshot entries following the snapshot offset until the end marker
+	 * @parameter in:DataInputStream , consumer:BiConsumer<String, BigDecimal> called with account id and balance
+	 * @returns number of accounts read
+	 */
+	static int readSnapshot(DataInputStream in, BiConsumer<String, BigDecimal> consumer) throws IOException
+	{
+		int accounts = 0;
+		while(in.readBoolean()) {
+			consumer.accept(in.readUTF(), readDecimal(in));
+			accounts++;
+		}
+		return accounts;
+	}
+
+	static ReplicationRecord readRecord(DataInputStream in) throws IOException
+	{
+		long offset = in.readLong();
+		AccountEvent.Type type = AccountEvent.Type.values()[in.readByte()];
+		String accountId = in.readUTF();
+		BigDecimal balance = readDecimal(in);
+		String counterpartyAccountId = null;
+		BigDecimal counterpartyBalance = null;
+		if(type==AccountEvent.Type.TRANSFERRED) {
+			counterpartyAccountId = in.readUTF();
+			counterpartyBalance = readDecimal(in);
+		}
+		BigDecimal amount = in.readBoolean() ? readDecimal(in) : null;
+		return new ReplicationRecord(offset, new AccountEvent(type, accountId, balance, counterpartyAccountId, counterpartyBalance, amount));
+	}
+
+	private static void writeRecord(DataOutputStream out, ReplicationRecord record) throws IOException
+	{
+		AccountEvent event = record.getEvent();
+		out.writeLong(record.getOffset());
+		out.writeByte(event.getType().ordinal());
+		out.writeUTF(event.getAccountId());
+		writeDecimal(out, event.getBalance());
+		if(event.getType()==AccountEvent.Type.TRANSFERRED) {
+			out.writeUTF(event.getCounterpartyAccountId());
+			writeDecimal(out, event.getCounterpartyBalance());
+		}
+		out.writeBoolean(event.getAmount()!=null);
+		if(event.getAmount()!=null)
+			writeDecimal(out, event.getAmount());
+	}
+
+	private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException
+	{
+		byte[] unscaled = value.unscaledValue().toByteArray();
+		out.writeInt(value.scale());
+		out.writeShort(unscaled.length);
+		out.write(unscaled);
+	}
+
+	private static BigDecimal readDecimal(DataInputStream in) throws IOException
+	{
+		int scale = in.readInt();
+		byte[] unscaled = new byte[in.readUnsignedShort()];
+		in.readFully(unscaled);
+		return new BigDecimal(new BigInteger(unscaled), scale);
+	}
+}
@@ -0,0 +1,17 @@
+package com.dws.challenge.replication;
+
+import com.dws.challenge.domain.AccountEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReplicationRecord {
+
+	private final long offset;
+
+	private final AccountEvent event;
+}
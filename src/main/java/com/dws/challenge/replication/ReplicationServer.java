@@ -0,0 +1,232 @@
+package com.dws.challenge.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.ReplicationOffsetOutOfRangeException;
+import com.dws.challenge.repository.AccountsRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Primary side of replication, streams the replication log to every connected standby.
+ * Every standby gets a sender thread which ships records in batches without waiting for acknowledgements
+ * and an ack reader thread which tracks how far the standby has applied the log.
+ * A standby asking for an offset the log no longer retains (new standby after the ring wrapped, standby lagging by more
+ * than replication.log-capacity events, primary restarted) gets a snapshot of all balances instead and is streamed from the
+ * log head offset taken before the snapshot was started.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "primary")
+public class ReplicationServer {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final ReplicationLog replicationLog;
+
+	private final AccountsRepository accountsRepository;
+
+	private final String bindAddress;
+
+	private final int port;
+
+	private final int batchSize;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Set<StandbySession> sessions = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean running;
+
+	private ServerSocket serverSocket;
+
+	public ReplicationServer(ReplicationLog replicationLog, AccountsRepository accountsRepository, MeterRegistry meterRegistry,
+			@Value("${replication.bind-address:127.0.0.1}") String bindAddress,
+			@Value("${replication.port:19090}") int port,
+			@Value("${replication.batch-size:512}") int batchSize)
+	{
+		this.replicationLog = replicationLog;
+		this.accountsRepository = accountsRepository;
+		this.meterRegistry = meterRegistry;
+		this.bindAddress = bindAddress;
+		this.port = port;
+		this.batchSize = batchSize;
+	}
+
+	@PostConstruct
+	public void start() throws IOException
+	{
+		serverSocket = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+		running = true;
+		Gauge.builder("replication.primary.head.offset", replicationLog, ReplicationLog::headOffset)
+				.description("Offset of next event appended to replication log").register(meterRegistry);
+		Gauge.builder("replication.standbys", sessions, Set::size)
+				.description("Connected standbys").register(meterRegistry);
+		Gauge.builder("replication.lag.events", this, ReplicationServer::maxLag)
+				.description("Events not yet acknowledged by slowest standby").register(meterRegistry);
+		startThread(this::acceptLoop, "replication-acceptor");
+		log.info("Replication primary listening on {}:{}", bindAddress, port);
+	}
+
+	@PreDestroy
+	public void stop() throws IOException
+	{
+		running = false;
+		serverSocket.close();
+		for(StandbySession session : sessions)
+			session.close();
+	}
+
+	public long maxLag()
+	{
+		long head = replicationLog.headOffset();
+		long lag = 0;
+		for(StandbySession session : sessions)
+			lag = Math.max(lag, head - session.ackedOffset);
+		return lag;
+	}
+
+	private void acceptLoop()
+	{
+		while(running) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				StandbySession session = new StandbySession(socket);
+				sessions.add(session);
+				startThread(session::sendLoop, "replication-sender-" + socket.getRemoteSocketAddress());
+			} catch(SocketException e) {
+				// server socket closed on shutdown
+			} catch(IOException e) {
+				log.error("Could not accept standby connection {}", e.getMessage());
+			}
+		}
+	}
+
+	private static void startThread(Runnable runnable, String name)
+	{
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private class StandbySession {
+
+		private final Socket socket;
+
+		private volatile long ackedOffset;
+
+		private StandbySession(Socket socket)
+		{
+			this.socket = socket;
+		}
+
+		private void sendLoop()
+		{
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+				long nextOffset = in.readLong();
+				ackedOffset = nextOffset;
+				log.info("Standby {} connected, streaming from offset {}", socket.getRemoteSocketAddress(), nextOffset);
+				startThread(() -> ackLoop(in), "replication-ack-" + socket.getRemoteSocketAddress());
+
+				// offset beyond the head was handed out by a previous run of the primary
+				if(nextOffset>replicationLog.headOffset())
+					nextOffset = sendSnapshot(out);
+				List<ReplicationRecord> batch = new ArrayList<>(batchSize);
+				while(running && !socket.isClosed()) {
+					batch.clear();
+					try {
+						replicationLog.read(nextOffset, batch, batchSize);
+					} catch(ReplicationOffsetOutOfRangeException e) {
+						log.warn("Standby {} can not catch up from the log {}", socket.getRemoteSocketAddress(), e.getMessage());
+						nextOffset = sendSnapshot(out);
+						continue;
+					}
+					if(batch.isEmpty()) {
+						LockSupport.parkNanos(IDLE_PARK_NANOS);
+						continue;
+					}
+					ReplicationProtocol.writeBatch(out, batch, replicationLog.headOffset());
+					out.flush();
+					nextOffset += batch.size();
+				}
+			} catch(IOException e) {
+				log.warn("Standby {} disconnected {}", socket.getRemoteSocketAddress(), e.getMessage());
+			} finally {
+				close();
+			}
+		}
+
+		/*
+		 * Method will send balances of all accounts, the head offset is taken first so every event below it is already
+		 * visible under its account lock and the standby converges once it has applied the log from that offset onwards.
+		 * Balances are read one account at a time, so the snapshot is consistent only together with the events following it.
+		 * @parameter out:DataOutputStream
+		 * @returns offset the standby has to be streamed from after the snapshot
+		 */
+		private long sendSnapshot(DataOutputStream out) throws IOException
+		{
+			long snapshotOffset = replicationLog.headOffset();
+			ReplicationProtocol.writeSnapshotStart(out, snapshotOffset);
+			int accounts = 0;
+			for(Account account : accountsRepository.getAccounts()) {
+				BigDecimal balance;
+				synchronized(account)
+				{
+					balance = account.getBalance();
+				}
+				ReplicationProtocol.writeSnapshotEntry(out, account.getAccountId(), balance);
+				accounts++;
+			}
+			ReplicationProtocol.writeSnapshotEnd(out);
+			log.info("Sent snapshot of {} accounts to standby {}, streaming from offset {}", accounts, socket.getRemoteSocketAddress(), snapshotOffset);
+			return snapshotOffset;
+		}
+
+		private void ackLoop(DataInputStream in)
+		{
+			try {
+				while(true)
+					ackedOffset = in.readLong();
+			} catch(IOException e) {
+				close();
+			}
+		}
+
+		private void close()
+		{
+			sessions.remove(this);
+			try {
+				socket.close();
+			} catch(IOException e) {
+				log.debug("Could not close standby socket {}", e.getMessage());
+			}
+		}
+	}
+}
@@ -2,6 +2,9 @@ package com.dws.challenge.repository;
 
 
 
+import java.util.Collection;
+import java.util.List;
+
 import com.dws.challenge.domain.Account;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 
@@ -11,6 +14,16 @@ public interface AccountsRepository {
 
   Account getAccount(String accountId);
 
+  // weakly consistent view of all accounts, used by end of day batch jobs
+  Collection<Account> getAccounts();
+
+  /*
+   * Method will return accounts in account id order, every bound is optional (null)
+   * @parameter after:String (exclusive cursor) , prefix:String , before:String (exclusive upper bound) , limit:int
+   * @returns at most limit accounts
+   */
+  List<Account> listAccounts(String after, String prefix, String before, int limit);
+
   void clearAccounts();
   
 }
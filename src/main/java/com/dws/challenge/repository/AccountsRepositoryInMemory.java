@@ -4,14 +4,23 @@ import com.dws.challenge.domain.Account;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Repository
 public class AccountsRepositoryInMemory implements AccountsRepository {
 
     private final Map<String, Account> accounts = new ConcurrentHashMap<>();
 
+    // ordered index over account ids for range scans, lookups by id keep using the hash map
+    private final ConcurrentSkipListMap<String, Account> accountIndex = new ConcurrentSkipListMap<>();
+
     @Override
     public void createAccount(Account account) throws DuplicateAccountIdException {
         Account previousAccount = accounts.putIfAbsent(account.getAccountId(), account);
@@ -19,6 +28,7 @@ public class AccountsRepositoryInMemory implements AccountsRepository {
             throw new DuplicateAccountIdException(
                     "Account id " + account.getAccountId() + " already exists!");
         }
+        accountIndex.put(account.getAccountId(), account);
     }
 
     @Override
@@ -26,9 +36,44 @@ public class AccountsRepositoryInMemory implements AccountsRepository {
         return accounts.get(accountId);
     }
 
+    @Override
+    public Collection<Account> getAccounts() {
+        return Collections.unmodifiableCollection(accounts.values());
+    }
+
+    @Override
+    public List<Account> listAccounts(String after, String prefix, String before, int limit) {
+        NavigableMap<String, Account> range = accountIndex;
+        // start from whichever of cursor and prefix is further, both bounds are applied by the skip list in O(log n)
+        String lowerBound = null;
+        if (after != null && (prefix == null || after.compareTo(prefix) >= 0)) {
+            lowerBound = after;
+            range = range.tailMap(after, false);
+        } else if (prefix != null) {
+            lowerBound = prefix;
+            range = range.tailMap(prefix, true);
+        }
+        if (before != null) {
+            // inverted range is empty, headMap of the tail view would throw for a bound below its start
+            if (lowerBound != null && before.compareTo(lowerBound) <= 0) {
+                return new ArrayList<>();
+            }
+            range = range.headMap(before, false);
+        }
+        List<Account> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Account account : range.values()) {
+            if (page.size() == limit || (prefix != null && !account.getAccountId().startsWith(prefix))) {
+                break;
+            }
+            page.add(account);
+        }
+        return page;
+    }
+
     @Override
     public void clearAccounts() {
         accounts.clear();
+        accountIndex.clear();
     }
 
 }
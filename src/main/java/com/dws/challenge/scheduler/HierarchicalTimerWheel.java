@@ -0,0 +1,171 @@
+package com.dws.challenge.scheduler;
+
+import java.util.function.Consumer;
+
+/*
+ * Hierarchical timer wheel holding tasks keyed by a deadline in epoch millis.
+ * Time is divided in ticks of tickMillis, every level has 64 slots and each slot of level n covers 64^n ticks,
+ * so 5 levels cover 64^5 ticks (~124 days with 10ms tick), deadlines beyond that are parked in an overflow list.
+ * Insert is O(1), a tick is O(1) plus the cost of cascading/expiring the entries of the slots it reaches.
+ * Class is not thread safe, it is expected to be driven by a single ticking thread.
+ */
+public class HierarchicalTimerWheel<T> {
+
+	private static final int WHEEL_BITS = 6;
+
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private static final int LEVELS = 5;
+
+	private final long startMillis;
+
+	private final long tickMillis;
+
+	private final Node<T>[][] slots;
+
+	// entries beyond the range of the top level, re-placed every time the top level wraps
+	private Node<T> overflow;
+
+	// entries whose deadline tick was already reached when they were placed
+	private Node<T> due;
+
+	private long currentTick;
+
+	private int size;
+
+	@SuppressWarnings("unchecked")
+	public HierarchicalTimerWheel(long startMillis, long tickMillis)
+	{
+		if(tickMillis<=0)
+			throw new IllegalArgumentException("tickMillis should be positive");
+		this.startMillis=startMillis;
+		this.tickMillis=tickMillis;
+		this.slots=new Node[LEVELS][WHEEL_SIZE];
+	}
+
+	/*
+	 * Method will add given task to the wheel, task will be expired on first tick at or after deadline
+	 * @parameter deadlineMillis:long , task:T
+	 * @returns void
+	 */
+	public void schedule(long deadlineMillis, T task)
+	{
+		place(new Node<>(toTick(deadlineMillis), task));
+		size++;
+	}
+
+	/*
+	 * Method will run all ticks up to given time and hand every expired task to consumer in tick order
+	 * @parameter nowMillis:long , expired:Consumer
+	 * @returns void
+	 */
+	public void advanceTo(long nowMillis, Consumer<T> expired)
+	{
+		expire(takeDue(), expired);
+		long targetTick=(nowMillis-startMillis)/tickMillis;
+		while(currentTick<targetTick)
+			tick(expired);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	private void tick(Consumer<T> expired)
+	{
+		currentTick++;
+		if((currentTick & ((1L<<(LEVELS*WHEEL_BITS))-1))==0) {
+			Node<T> parked=overflow;
+			overflow=null;
+			cascade(parked);
+		}
+		// a slot of an upper level is cascaded once current tick reaches the start of its range
+		for(int level=LEVELS-1;level>=1;level--) {
+			int shift=level*WHEEL_BITS;
+			if((currentTick & ((1L<<shift)-1))==0) {
+				int slot=(int)(currentTick>>>shift) & WHEEL_MASK;
+				Node<T> cascaded=slots[level][slot];
+				slots[level][slot]=null;
+				cascade(cascaded);
+			}
+		}
+		int slot=(int)currentTick & WHEEL_MASK;
+		Node<T> expiredNodes=slots[0][slot];
+		slots[0][slot]=null;
+		expire(expiredNodes, expired);
+		expire(takeDue(), expired);
+	}
+
+	private void cascade(Node<T> node)
+	{
+		while(node!=null) {
+			Node<T> next=node.next;
+			place(node);
+			node=next;
+		}
+	}
+
+	private void place(Node<T> node)
+	{
+		if(node.deadlineTick<=currentTick) {
+			node.next=due;
+			due=node;
+			return;
+		}
+		// level is given by highest 6 bit group in which deadline differs from current tick
+		int level=(63-Long.numberOfLeadingZeros(node.deadlineTick ^ currentTick))/WHEEL_BITS;
+		if(level>=LEVELS) {
+			node.next=overflow;
+			overflow=node;
+			return;
+		}
+		int slot=(int)(node.deadlineTick>>>(level*WHEEL_BITS)) & WHEEL_MASK;
+		node.next=slots[level][slot];
+		slots[level][slot]=node;
+	}
+
+	private Node<T> takeDue()
+	{
+		Node<T> taken=due;
+		due=null;
+		return taken;
+	}
+
+	private void expire(Node<T> node, Consumer<T> expired)
+	{
+		while(node!=null) {
+			Node<T> next=node.next;
+			node.next=null;
+			size--;
+			expired.accept(node.task);
+			node=next;
+		}
+	}
+
+	// deadlines are rounded up to next tick so that a task never fires before its deadline
+	private long toTick(long deadlineMillis)
+	{
+		long elapsed=deadlineMillis-startMillis;
+		if(elapsed<=0)
+			return 0;
+		return (elapsed+tickMillis-1)/tickMillis;
+	}
+
+	private static final class Node<T> {
+
+		private final long deadlineTick;
+
+		private final T task;
+
+		private Node<T> next;
+
+		private Node(long deadlineTick, T task)
+		{
+			this.deadlineTick=deadlineTick;
+			this.task=task;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.dws.challenge.scheduler;
+
+import com.dws.challenge.domain.TransferRequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ScheduledTransfer {
+
+	private final long id;
+
+	private final TransferRequest transferRequest;
+
+	public long getExecutionTime()
+	{
+		return transferRequest.getExecutionTime();
+	}
+}
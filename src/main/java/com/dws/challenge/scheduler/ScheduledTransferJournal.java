@@ -0,0 +1,311 @@
+package com.dws.challenge.scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dws.challenge.domain.TransferRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Append only binary journal of pending scheduled transfers.
+ * Every scheduled transfer is written as a SCHEDULED record and every fired one as a COMPLETED record,
+ * on startup journal is replayed and compacted so that it only contains transfers which are still pending.
+ * Records are buffered and forced to disk by sync (group commit) : the scheduler syncs once per tick and once per executed batch.
+ * A scheduled transfer is accepted only once its SCHEDULED record is synced (awaitDurable), so an accepted transfer is never lost.
+ * COMPLETED record of an executed transfer is buffered under account locks before balances change and synced with the rest of its batch,
+ * so a crash can replay only transfers of the batches running at that moment.
+ * Journal is disabled when no path is configured or when another instance already holds the journal lock.
+ */
+@Slf4j
+@Component
+public class ScheduledTransferJournal {
+
+	private static final int MAGIC = 0x44575354;
+
+	private static final byte FORMAT_VERSION = 2;
+
+	// version 1 wrote length of unscaled amount as one byte
+	private static final byte SHORT_AMOUNT_FORMAT_VERSION = 1;
+
+	private static final byte SCHEDULED_RECORD = 1;
+
+	private static final byte COMPLETED_RECORD = 2;
+
+	private final Path journalPath;
+
+	private FileChannel lockChannel;
+
+	private FileChannel journalChannel;
+
+	private DataOutputStream out;
+
+	// records appended so far and records known to be on disk
+	private long appendedSequence;
+
+	private long syncedSequence;
+
+	private IOException syncFailure;
+
+	public ScheduledTransferJournal(@Value("${scheduler.journal-path:}") String journalPath)
+	{
+		this.journalPath = journalPath == null || journalPath.isBlank() ? null : Paths.get(journalPath);
+	}
+
+	/*
+	 * Method will replay the journal, rewrite it with pending transfers only and open it for appending
+	 * @returns pending scheduled transfers ordered by id
+	 */
+	public synchronized List<ScheduledTransfer> open() throws IOException
+	{
+		if(journalPath==null || !acquireLock())
+			return new ArrayList<>();
+
+		Map<Long, ScheduledTransfer> pending = new LinkedHashMap<>();
+		if(Files.exists(journalPath))
+			replay(pending);
+
+		// compacted journal is forced before it replaces the old one, and the rename is forced with its directory
+		Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+		try(FileChannel tmpChannel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream tmp = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(tmpChannel)));
+			writeHeader(tmp);
+			for(ScheduledTransfer scheduledTransfer : pending.values())
+				writeScheduled(tmp, scheduledTransfer);
+			tmp.flush();
+			tmpChannel.force(true);
+		}
+		Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		forceDirectory();
+
+		journalChannel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(journalChannel), 64 * 1024));
+		log.info("Opened scheduled transfer journal {} with {} pending transfers", journalPath, pending.size());
+		return new ArrayList<>(pending.values());
+	}
+
+	/*
+	 * Method will buffer SCHEDULED record of given transfer
+	 * @parameter scheduledTransfer:ScheduledTransfer
+	 * @returns sequence of the record , to wait for with awaitDurable
+	 */
+	public synchronized long appendScheduled(ScheduledTransfer scheduledTransfer)
+	{
+		if(out==null)
+			return 0;
+		try {
+			writeScheduled(out, scheduledTransfer);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return ++appendedSequence;
+	}
+
+	/*
+	 * Method will buffer COMPLETED record of given transfer, it is on disk after next sync
+	 * @parameter id:long
+	 * @returns sequence of the record
+	 * @throws UncheckedIOException if record could not be written , then transfer must not be applied
+	 */
+	public synchronized long appendCompleted(long id)
+	{
+		if(out==null)
+			return 0;
+		try {
+			out.writeByte(COMPLETED_RECORD);
+			out.writeLong(id);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return ++appendedSequence;
+	}
+
+	/*
+	 * Method will force every record appended so far to disk, appends are not blocked while disk is synced
+	 * @returns void
+	 * @throws UncheckedIOException if journal could not be synced , waiting callers fail too
+	 */
+	public void sync()
+	{
+		long target;
+		FileChannel channel;
+		synchronized(this) {
+			if(out==null || appendedSequence==syncedSequence)
+				return;
+			target = appendedSequence;
+			channel = journalChannel;
+			try {
+				out.flush();
+			} catch(IOException e) {
+				failSync(e);
+			}
+		}
+		try {
+			channel.force(false);
+		} catch(IOException e) {
+			synchronized(this) {
+				failSync(e);
+			}
+		}
+		synchronized(this) {
+			syncFailure = null;
+			syncedSequence = Math.max(syncedSequence, target);
+			notifyAll();
+		}
+	}
+
+	/*
+	 * Method will wait until record of given sequence is on disk
+	 * @parameter sequence:long , as returned by an append method
+	 * @returns void
+	 * @throws UncheckedIOException if journal could not be synced or waiting was interrupted
+	 */
+	public synchronized void awaitDurable(long sequence)
+	{
+		try {
+			while(out!=null && syncedSequence<sequence) {
+				if(syncFailure!=null)
+					throw new UncheckedIOException(syncFailure);
+				wait();
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for scheduled transfer journal sync"));
+		}
+	}
+
+	public synchronized void close() throws IOException
+	{
+		if(out!=null) {
+			out.close();
+			out=null;
+			journalChannel=null;
+			notifyAll();
+		}
+		if(lockChannel!=null) {
+			lockChannel.close();
+			lockChannel=null;
+		}
+	}
+
+	private void failSync(IOException e)
+	{
+		syncFailure = e;
+		notifyAll();
+		throw new UncheckedIOException(e);
+	}
+
+	private void forceDirectory()
+	{
+		Path directory = journalPath.toAbsolutePath().getParent();
+		try(FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			directoryChannel.force(true);
+		} catch(IOException e) {
+			// not supported on every platform, rename is then as durable as the file system makes it
+			log.debug("Could not force directory {} {}", directory, e.getMessage());
+		}
+	}
+
+	private boolean acquireLock() throws IOException
+	{
+		if(journalPath.getParent()!=null)
+			Files.createDirectories(journalPath.getParent());
+		FileChannel channel = FileChannel.open(journalPath.resolveSibling(journalPath.getFileName() + ".lock"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock lock;
+		try {
+			lock = channel.tryLock();
+		} catch(OverlappingFileLockException e) {
+			lock = null;
+		}
+		if(lock==null) {
+			channel.close();
+			log.warn("Scheduled transfer journal {} is in use by another instance, pending transfers will not be persisted", journalPath);
+			return false;
+		}
+		lockChannel = channel;
+		return true;
+	}
+
+	private void replay(Map<Long, ScheduledTransfer> pending) throws IOException
+	{
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)))) {
+			if(in.readInt()!=MAGIC)
+				throw new IOException("Unsupported scheduled transfer journal format " + journalPath);
+			byte version = in.readByte();
+			if(version!=FORMAT_VERSION && version!=SHORT_AMOUNT_FORMAT_VERSION)
+				throw new IOException("Unsupported scheduled transfer journal format " + journalPath);
+			while(true) {
+				byte type = in.readByte();
+				long id = in.readLong();
+				if(type==SCHEDULED_RECORD)
+					pending.put(id, readScheduled(in, id, version));
+				else if(type==COMPLETED_RECORD)
+					pending.remove(id);
+				else
+					throw new IOException("Corrupted scheduled transfer journal " + journalPath);
+			}
+		} catch(EOFException e) {
+			// end of journal, a record torn by a crash is dropped
+		}
+	}
+
+	private static void writeHeader(DataOutputStream out) throws IOException
+	{
+		out.writeInt(MAGIC);
+		out.writeByte(FORMAT_VERSION);
+	}
+
+	private static void writeScheduled(DataOutputStream out, ScheduledTransfer scheduledTransfer) throws IOException
+	{
+		TransferRequest transferRequest = scheduledTransfer.getTransferRequest();
+		byte[] unscaledAmount = transferRequest.getAmount().unscaledValue().toByteArray();
+		out.writeByte(SCHEDULED_RECORD);
+		out.writeLong(scheduledTransfer.getId());
+		out.writeLong(transferRequest.getExecutionTime());
+		out.writeUTF(transferRequest.getFromAccountId());
+		out.writeUTF(transferRequest.getToAccountId());
+		out.writeInt(transferRequest.getAmount().scale());
+		out.writeInt(unscaledAmount.length);
+		out.write(unscaledAmount);
+	}
+
+	private static ScheduledTransfer readScheduled(DataInputStream in, long id, byte version) throws IOException
+	{
+		long executionTime = in.readLong();
+		String fromAccountId = in.readUTF();
+		String toAccountId = in.readUTF();
+		int scale = in.readInt();
+		int unscaledLength = version==SHORT_AMOUNT_FORMAT_VERSION ? in.readUnsignedByte() : in.readInt();
+		if(unscaledLength<0)
+			throw new IOException("Corrupted scheduled transfer journal record " + id);
+		byte[] unscaledAmount = new byte[unscaledLength];
+		in.readFully(unscaledAmount);
+		BigDecimal amount = new BigDecimal(new BigInteger(unscaledAmount), scale);
+		return new ScheduledTransfer(id, new TransferRequest(fromAccountId, toAccountId, amount, executionTime));
+	}
+}
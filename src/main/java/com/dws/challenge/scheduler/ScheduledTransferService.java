@@ -0,0 +1,189 @@
+package com.dws.challenge.scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.cluster.ClusterTransferService;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Holds future dated transfers in a hierarchical timer wheel and executes them once due.
+ * Transfers go through ClusterTransferService, which hands them to AccountsService unless other nodes are involved.
+ * Request threads only append to the journal and to a lock free inbox, single ticker thread moves inbox entries
+ * into the wheel, advances it, syncs the journal (which accepts waiting requests) and hands due transfers in batches to worker threads.
+ * Completions of a batch are synced once after the batch. Transfers failing validation are completed, other failures
+ * (e.g. owner node unreachable) keep the transfer pending and it is retried after scheduler.retry-millis.
+ */
+@Slf4j
+@Service
+public class ScheduledTransferService {
+
+	private final ClusterTransferService clusterTransferService;
+
+	private final ScheduledTransferJournal journal;
+
+	private final long tickMillis;
+
+	private final int batchSize;
+
+	private final int workerThreads;
+
+	private final long retryMillis;
+
+	private final Queue<ScheduledTransfer> inbox = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private HierarchicalTimerWheel<ScheduledTransfer> timerWheel;
+
+	private ScheduledExecutorService ticker;
+
+	private ExecutorService workers;
+
+	@Autowired
+	public ScheduledTransferService(ClusterTransferService clusterTransferService, ScheduledTransferJournal journal,
+			@Value("${scheduler.tick-millis:10}") long tickMillis,
+			@Value("${scheduler.batch-size:500}") int batchSize,
+			@Value("${scheduler.worker-threads:2}") int workerThreads,
+			@Value("${scheduler.retry-millis:1000}") long retryMillis)
+	{
+		this.clusterTransferService = clusterTransferService;
+		this.journal = journal;
+		this.tickMillis = tickMillis;
+		this.batchSize = batchSize;
+		this.workerThreads = workerThreads;
+		this.retryMillis = retryMillis;
+	}
+
+	@PostConstruct
+	public void start() throws IOException
+	{
+		timerWheel = new HierarchicalTimerWheel<>(System.currentTimeMillis(), tickMillis);
+		List<ScheduledTransfer> pending = journal.open();
+		for(ScheduledTransfer scheduledTransfer : pending) {
+			idSequence.accumulateAndGet(scheduledTransfer.getId(), Math::max);
+			timerWheel.schedule(scheduledTransfer.getExecutionTime(), scheduledTransfer);
+		}
+		workers = Executors.newFixedThreadPool(workerThreads, runnable -> newDaemonThread(runnable, "scheduled-transfer-worker"));
+		ticker = Executors.newSingleThreadScheduledExecutor(runnable -> newDaemonThread(runnable, "scheduled-transfer-ticker"));
+		ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() throws IOException, InterruptedException
+	{
+		ticker.shutdown();
+		ticker.awaitTermination(5, TimeUnit.SECONDS);
+		workers.shutdown();
+		workers.awaitTermination(5, TimeUnit.SECONDS);
+		journal.sync();
+		journal.close();
+	}
+
+	public boolean isFutureDated(TransferRequest transferRequest)
+	{
+		return transferRequest.getExecutionTime()!=null && transferRequest.getExecutionTime()>System.currentTimeMillis();
+	}
+
+	/*
+	 * Method will validate accounts of given transfer request and will register it for execution at its execution time
+	 * Balance is validated only when transfer gets executed, method returns once transfer is on disk (next tick at the latest)
+	 * @parameter transferRequest:TransferRequest
+	 * @returns id of scheduled transfer
+	 * @throws TranserMoneyValidationException if from/to accounts are invalid , UncheckedIOException if transfer could not be journaled
+	 */
+	public long scheduleTransfer(TransferRequest transferRequest) throws TranserMoneyValidationException
+	{
+		clusterTransferService.validateAccounts(transferRequest);
+		ScheduledTransfer scheduledTransfer = new ScheduledTransfer(idSequence.incrementAndGet(), transferRequest);
+		journal.awaitDurable(journal.appendScheduled(scheduledTransfer));
+		inbox.offer(scheduledTransfer);
+		log.info("Scheduled transfer {}", scheduledTransfer);
+		return scheduledTransfer.getId();
+	}
+
+	private void tick()
+	{
+		try {
+			ScheduledTransfer scheduledTransfer;
+			while((scheduledTransfer = inbox.poll())!=null)
+				timerWheel.schedule(scheduledTransfer.getExecutionTime(), scheduledTransfer);
+
+			List<ScheduledTransfer> dueTransfers = new ArrayList<>();
+			timerWheel.advanceTo(System.currentTimeMillis(), dueTransfers::add);
+			for(int from=0;from<dueTransfers.size();from+=batchSize) {
+				List<ScheduledTransfer> batch = new ArrayList<>(dueTransfers.subList(from, Math.min(from+batchSize, dueTransfers.size())));
+				workers.execute(() -> executeBatch(batch));
+			}
+			journal.sync();
+		} catch(Exception e) {
+			// exception must not escape, it would cancel further ticks
+			log.error("Caught Exception while advancing scheduled transfers {}", e.getMessage(), e);
+		}
+	}
+
+	private void executeBatch(List<ScheduledTransfer> batch)
+	{
+		for(ScheduledTransfer scheduledTransfer : batch) {
+			long id = scheduledTransfer.getId();
+			try {
+				// completion is buffered under account locks before balances change, no disk sync is done while locks are held
+				clusterTransferService.transferMoney(scheduledTransfer.getTransferRequest(), () -> journal.appendCompleted(id));
+			} catch(TranserMoneyValidationException validationException) {
+				log.error("Scheduled transfer {} failed validation {}", id, validationException.getMessage());
+				markCompleted(id);
+			} catch(Exception e) {
+				// transfer was not applied, it stays pending in the journal and in the wheel
+				log.error("Scheduled transfer {} failed, retrying in {} ms {}", id, retryMillis, e.getMessage());
+				retry(scheduledTransfer);
+			}
+		}
+		try {
+			journal.sync();
+		} catch(UncheckedIOException e) {
+			log.error("Could not sync completions of {} scheduled transfers {}", batch.size(), e.getMessage());
+		}
+	}
+
+	private void markCompleted(long id)
+	{
+		try {
+			journal.appendCompleted(id);
+		} catch(UncheckedIOException e) {
+			// transfer stays pending in the journal and is validated again after restart
+			log.error("Could not record completion of scheduled transfer {} {}", id, e.getMessage());
+		}
+	}
+
+	private void retry(ScheduledTransfer scheduledTransfer)
+	{
+		TransferRequest transferRequest = scheduledTransfer.getTransferRequest();
+		inbox.offer(new ScheduledTransfer(scheduledTransfer.getId(), new TransferRequest(transferRequest.getFromAccountId(),
+				transferRequest.getToAccountId(), transferRequest.getAmount(), System.currentTimeMillis() + retryMillis)));
+	}
+
+	private static Thread newDaemonThread(Runnable runnable, String name)
+	{
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,13 @@
+package com.dws.challenge.service;
+
+import com.dws.challenge.domain.AccountEvent;
+
+/*
+ * Listener of committed account changes.
+ * It is called while locks of the changed accounts are held, so events of one account arrive in commit order,
+ * implementations must be fast and must not block.
+ */
+public interface AccountEventListener {
+
+  void onAccountEvent(AccountEvent event);
+}
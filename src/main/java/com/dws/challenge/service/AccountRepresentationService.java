@@ -0,0 +1,63 @@
+package com.dws.challenge.service;
+
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountRepresentation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Serves serialized accounts, an account is serialized again only when its version changed since last serialization
+ */
+@Service
+public class AccountRepresentationService {
+
+	private final AccountsService accountsService;
+
+	private final ObjectMapper objectMapper;
+
+	public AccountRepresentationService(AccountsService accountsService, ObjectMapper objectMapper)
+	{
+		this.accountsService = accountsService;
+		this.objectMapper = objectMapper;
+	}
+
+	/*
+	 * Method will return serialized account only if it is cached for current version, it never waits for the account lock
+	 * @parameter account:Account
+	 * @returns cached representation or null if account has to be serialized
+	 */
+	public AccountRepresentation getCachedRepresentation(Account account)
+	{
+		AccountRepresentation cached = account.getRepresentation();
+		return cached!=null && cached.getVersion()==account.getVersion() ? cached : null;
+	}
+
+	/*
+	 * Method will return serialized account with its version
+	 * @parameter accountId:String
+	 * @returns representation of current version or null if account does not exist
+	 */
+	public AccountRepresentation getRepresentation(String accountId) throws JsonProcessingException
+	{
+		Account account = accountsService.getAccount(accountId);
+		if(account==null)
+			return null;
+		AccountRepresentation cached = getCachedRepresentation(account);
+		if(cached!=null)
+			return cached;
+
+		// balance and version are copied under lock so that they match, serialization happens outside of it
+		Account snapshot;
+		long version;
+		synchronized(account)
+		{
+			version = account.getVersion();
+			snapshot = new Account(account.getAccountId(), account.getBalance());
+		}
+		AccountRepresentation fresh = new AccountRepresentation(version, objectMapper.writeValueAsBytes(snapshot));
+		account.setRepresentation(fresh);
+		return fresh;
+	}
+}
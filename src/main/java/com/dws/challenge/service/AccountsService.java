@@ -1,9 +1,20 @@
 package com.dws.challenge.service;
 
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountEvent;
+import com.dws.challenge.domain.AccountPage;
 import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
 import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.hotaccounts.HotAccountTracker;
 import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.tracing.AccountLookupEvent;
+import com.dws.challenge.tracing.BalanceMutationEvent;
+import com.dws.challenge.tracing.LockAcquisitionEvent;
+import com.dws.challenge.tracing.NotificationDispatchEvent;
+import com.dws.challenge.tracing.TransferEvent;
+import com.dws.challenge.tracing.TransferTracing;
+import com.dws.challenge.tracing.TransferValidationEvent;
 import com.dws.challenge.util.Constants;
 import com.dws.challenge.util.MoneyTransferValidator;
 import com.dws.challenge.web.AccountsController;
@@ -14,8 +25,11 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -27,20 +41,69 @@ public class AccountsService {
   
   @Getter
   private final NotificationService notificationService;
+  
+  // listeners of committed changes (e.g. replication), called under account locks
+  private final AccountEventListener[] eventListeners;
+  
+  private final HotAccountTracker hotAccountTracker;
+  
+  // standby applies replicated changes straight to the repository, writes through this service wait for its promotion
+  private volatile boolean readOnly;
 
   @Autowired
-  public AccountsService(AccountsRepository accountsRepository,NotificationService notificationService) {
+  public AccountsService(AccountsRepository accountsRepository,NotificationService notificationService,
+		  ObjectProvider<AccountEventListener> eventListeners,HotAccountTracker hotAccountTracker,
+		  @Value("${replication.role:none}") String replicationRole) {
     this.accountsRepository = accountsRepository;
     this.notificationService=notificationService;
+    this.hotAccountTracker=hotAccountTracker;
+    this.eventListeners=eventListeners.orderedStream().toArray(AccountEventListener[]::new);
+    this.readOnly="standby".equals(replicationRole);
+  }
+  
+  // called once a standby is promoted
+  public void acceptWrites() {
+    this.readOnly=false;
+  }
+  
+  /*
+   * Method will reject a write on a standby which is not promoted yet
+   * @returns void
+   * @throws ReadOnlyReplicaException if this node is a standby
+   */
+  public void checkWritable() {
+    if(readOnly)
+      throw new ReadOnlyReplicaException(Constants.READ_ONLY_REPLICA_ERROR_MESSAGE);
   }
 
   public void createAccount(Account account) {
-    this.accountsRepository.createAccount(account);
+	checkWritable();
+	// account is locked so that its creation is published before any transfer touching it
+	synchronized(account)
+	{
+		this.accountsRepository.createAccount(account);
+		if(eventListeners.length>0)
+			publishEvent(AccountEvent.created(account));
+	}
   }
 
   public Account getAccount(String accountId) {
     return this.accountsRepository.getAccount(accountId);
   }
+
+  /*
+   * Method will return a page of accounts in account id order, one extra account is read to know if there is a next page
+   * @parameter after:String , prefix:String , before:String (all optional) , limit:int
+   * @returns page with cursor of next page
+   */
+  public AccountPage listAccounts(String after, String prefix, String before, int limit) {
+    List<Account> accounts = this.accountsRepository.listAccounts(after, prefix, before, limit + 1);
+    if (accounts.size() <= limit) {
+      return new AccountPage(accounts, null);
+    }
+    List<Account> page = accounts.subList(0, limit);
+    return new AccountPage(page, page.get(limit - 1).getAccountId());
+  }
   
   /*
    * Method will fetch accounts , validate transfer request and process transfer request 
@@ -50,17 +113,59 @@ public class AccountsService {
    * @throws TranserMoneyValidationException if any validation error found
    */
   public void transferMoney(TransferRequest transferRequest) throws TranserMoneyValidationException, Exception
+  {
+	  transferMoney(transferRequest,null);
+  }
+  
+  /*
+   * Method will process transfer request like transferMoney(TransferRequest) and will run onCommit under account locks
+   * once balance is validated and before balances change, an exception thrown by onCommit cancels the transfer
+   * Used to record a transfer durably (e.g. scheduled transfer journal) together with its balance change
+   * @Parameter transferRequest:TransferRequest , onCommit:Runnable (optional)
+   * @Return void
+   * @throws TranserMoneyValidationException if any validation error found
+   */
+  public void transferMoney(TransferRequest transferRequest ,Runnable onCommit) throws TranserMoneyValidationException, Exception
+  {
+	  checkWritable();
+	  // whole transfer is traced as a JFR event, its stages are traced by processTransfer
+	  TransferEvent transferEvent=new TransferEvent();
+	  transferEvent.begin();
+	  String outcome=TransferTracing.OUTCOME_FAILED;
+	  try
+	  {
+		  processTransfer(transferRequest,onCommit);
+		  outcome=TransferTracing.OUTCOME_COMPLETED;
+	  }
+	  catch(TranserMoneyValidationException validationException)
+	  {
+		  outcome=TransferTracing.OUTCOME_REJECTED;
+		  throw validationException;
+	  }
+	  finally
+	  {
+		  TransferTracing.commitTransfer(transferEvent,transferRequest.getFromAccountId(),transferRequest.getToAccountId(),transferRequest.getAmount(),outcome);
+	  }
+  }
+  
+  private void processTransfer(TransferRequest transferRequest ,Runnable onCommit) throws TranserMoneyValidationException
   { 
 	  	// lock object reference
 	    Account parentLockObject;
 		Account childLockObject;
 		
 		// fetch from and to account from repository
+		AccountLookupEvent lookupEvent=new AccountLookupEvent();
+		lookupEvent.begin();
 	    Account fromAccount = getAccount(transferRequest.getFromAccountId());
 		Account toAccount = getAccount(transferRequest.getToAccountId());
+		TransferTracing.commitLookup(lookupEvent,transferRequest.getFromAccountId(),transferRequest.getToAccountId());
 		
 		//basic validation on accounts
+		TransferValidationEvent accountsValidationEvent=new TransferValidationEvent();
+		accountsValidationEvent.begin();
 		MoneyTransferValidator.validateAccounts(fromAccount,toAccount);
+		TransferTracing.commitValidation(accountsValidationEvent,TransferTracing.CHECK_ACCOUNTS);
 		
 		// order the accounts , so that we can take ordered lock every time to avoid deadlock
 		Account[] ordredeAccounts=compareAcounts(fromAccount,toAccount);
@@ -71,25 +176,299 @@ public class AccountsService {
 		// Thread.currentThread().sleep(5L);
 		
 		
+		// lock wait times are recorded after locks are released, to find accounts causing contention
+		long lockRequestedAt=System.nanoTime();
+		long parentLockAcquiredAt=lockRequestedAt;
+		long childLockAcquiredAt=lockRequestedAt;
+		LockAcquisitionEvent parentLockEvent=new LockAcquisitionEvent();
+		try
+		{
 		//acquiring ordered lock on from and to account to avoid dead lock and to process transfer without interruption
+		parentLockEvent.begin();
 		synchronized(parentLockObject)
 		{
+			parentLockAcquiredAt=System.nanoTime();
+			TransferTracing.commitLock(parentLockEvent,parentLockObject.getAccountId(),TransferTracing.MONITOR_PARENT);
 			log.debug("aquired lovk on parentlockobject : {}",parentLockObject);
+			LockAcquisitionEvent childLockEvent=new LockAcquisitionEvent();
+			childLockEvent.begin();
 			synchronized(childLockObject)
 			{
+				childLockAcquiredAt=System.nanoTime();
+				TransferTracing.commitLock(childLockEvent,childLockObject.getAccountId(),TransferTracing.MONITOR_CHILD);
 				log.debug("aquired lock on childlockobject : {}",childLockObject);
 				//validate Balance in from account, to avoid negative balance
+				TransferValidationEvent balanceValidationEvent=new TransferValidationEvent();
+				balanceValidationEvent.begin();
 				MoneyTransferValidator.validateSenderBalance(fromAccount,transferRequest.getAmount());
+				TransferTracing.commitValidation(balanceValidationEvent,TransferTracing.CHECK_BALANCE);
+				if(onCommit!=null)
+					onCommit.run();
 				debitMoney(fromAccount,transferRequest.getAmount());
 				creditMoney(toAccount,transferRequest.getAmount());
+				if(eventListeners.length>0)
+					publishEvent(AccountEvent.transferred(fromAccount,toAccount,transferRequest.getAmount()));
 			}
 		}
+		}
+		finally
+		{
+			this.hotAccountTracker.record(parentLockObject.getAccountId(),parentLockAcquiredAt-lockRequestedAt);
+			this.hotAccountTracker.record(childLockObject.getAccountId(),childLockAcquiredAt-parentLockAcquiredAt);
+		}
 		
 		log.info("Successfully completed transfer request: {}",transferRequest);
    }
 	  
 	  
     
+  /*
+   * Method will process transfers between the same two accounts (either direction) as one netted balance movement
+   * Requests are validated in arrival order against running balances, so each one gets the outcome it would get if processed alone,
+   * accepted ones are applied as a single net movement under one ordered lock acquisition and published as one event
+   * Owners are notified per request, with balance after that request, once locks are released
+   * @parameter transferRequests:List<TransferRequest> , all between the same pair of accounts
+   * @returns rejection per request , null for accepted requests
+   * @throws TranserMoneyValidationException if accounts are invalid , then no request is processed
+   */
+  public TranserMoneyValidationException[] transferMoneyNetted(List<TransferRequest> transferRequests) throws TranserMoneyValidationException
+  {
+	  checkWritable();
+	  // group is traced as one transfer event of the net movement, its stages are traced like those of a single transfer
+	  TransferEvent transferEvent=new TransferEvent();
+	  transferEvent.begin();
+	  TransferRequest firstRequest=transferRequests.get(0);
+	  String outcome=TransferTracing.OUTCOME_FAILED;
+	  TransferRequest netMovement=firstRequest;
+	  try
+	  {
+		  TranserMoneyValidationException[] rejections=new TranserMoneyValidationException[transferRequests.size()];
+		  netMovement=processNettedTransfers(transferRequests,rejections);
+		  outcome=TransferTracing.OUTCOME_NETTED;
+		  return rejections;
+	  }
+	  catch(TranserMoneyValidationException validationException)
+	  {
+		  outcome=TransferTracing.OUTCOME_REJECTED;
+		  throw validationException;
+	  }
+	  finally
+	  {
+		  TransferTracing.commitTransfer(transferEvent,netMovement.getFromAccountId(),netMovement.getToAccountId(),netMovement.getAmount(),outcome);
+	  }
+  }
+  
+  // applies a netting group , returns the net movement (zero amount if requests cancel out)
+  private TransferRequest processNettedTransfers(List<TransferRequest> transferRequests ,TranserMoneyValidationException[] rejections) throws TranserMoneyValidationException
+  {
+	  TransferRequest firstRequest=transferRequests.get(0);
+	  AccountLookupEvent lookupEvent=new AccountLookupEvent();
+	  lookupEvent.begin();
+	  Account firstAccount=getAccount(firstRequest.getFromAccountId());
+	  Account secondAccount=getAccount(firstRequest.getToAccountId());
+	  TransferTracing.commitLookup(lookupEvent,firstRequest.getFromAccountId(),firstRequest.getToAccountId());
+	  
+	  TransferValidationEvent accountsValidationEvent=new TransferValidationEvent();
+	  accountsValidationEvent.begin();
+	  MoneyTransferValidator.validateAccounts(firstAccount,secondAccount);
+	  TransferTracing.commitValidation(accountsValidationEvent,TransferTracing.CHECK_ACCOUNTS);
+	  Account[] ordredeAccounts=compareAcounts(firstAccount,secondAccount);
+	  
+	  int count=transferRequests.size();
+	  // balances of sender and receiver right after each request, used for notifications
+	  BigDecimal[] senderBalances=new BigDecimal[count];
+	  BigDecimal[] receiverBalances=new BigDecimal[count];
+	  BigDecimal netChange;
+	  
+	  long lockRequestedAt=System.nanoTime();
+	  long parentLockAcquiredAt=lockRequestedAt;
+	  long childLockAcquiredAt=lockRequestedAt;
+	  LockAcquisitionEvent parentLockEvent=new LockAcquisitionEvent();
+	  try
+	  {
+	  parentLockEvent.begin();
+	  synchronized(ordredeAccounts[0])
+	  {
+		  parentLockAcquiredAt=System.nanoTime();
+		  TransferTracing.commitLock(parentLockEvent,ordredeAccounts[0].getAccountId(),TransferTracing.MONITOR_PARENT);
+		  LockAcquisitionEvent childLockEvent=new LockAcquisitionEvent();
+		  childLockEvent.begin();
+		  synchronized(ordredeAccounts[1])
+		  {
+			  childLockAcquiredAt=System.nanoTime();
+			  TransferTracing.commitLock(childLockEvent,ordredeAccounts[1].getAccountId(),TransferTracing.MONITOR_CHILD);
+			  // every request of the group is checked against running balances , traced as one balance check
+			  TransferValidationEvent balanceValidationEvent=new TransferValidationEvent();
+			  balanceValidationEvent.begin();
+			  BigDecimal firstBalance=firstAccount.getBalance();
+			  BigDecimal secondBalance=secondAccount.getBalance();
+			  for(int i=0;i<count;i++)
+			  {
+				  TransferRequest transferRequest=transferRequests.get(i);
+				  boolean forward=transferRequest.getFromAccountId().equals(firstAccount.getAccountId());
+				  boolean samePair=forward ? transferRequest.getToAccountId().equals(secondAccount.getAccountId())
+						  : transferRequest.getFromAccountId().equals(secondAccount.getAccountId()) && transferRequest.getToAccountId().equals(firstAccount.getAccountId());
+				  if(!samePair)
+				  {
+					  rejections[i]=new TranserMoneyValidationException(Constants.INVALID_ACCOUNTS_ERROR_MESSAGE);
+					  continue;
+				  }
+				  BigDecimal amount=transferRequest.getAmount();
+				  if((forward ? firstBalance : secondBalance).compareTo(amount)<0)
+				  {
+					  rejections[i]=new TranserMoneyValidationException(Constants.INSUFFICIENT_BALANCE_ERROR_MESSAGE);
+					  continue;
+				  }
+				  firstBalance=forward ? firstBalance.subtract(amount) : firstBalance.add(amount);
+				  secondBalance=forward ? secondBalance.add(amount) : secondBalance.subtract(amount);
+				  senderBalances[i]=forward ? firstBalance : secondBalance;
+				  receiverBalances[i]=forward ? secondBalance : firstBalance;
+			  }
+			  TransferTracing.commitValidation(balanceValidationEvent,TransferTracing.CHECK_BALANCE);
+			  netChange=firstBalance.subtract(firstAccount.getBalance());
+			  if(netChange.signum()!=0)
+			  {
+				  setBalance(firstAccount,firstBalance,netChange.signum()<0 ? TransferTracing.DIRECTION_DEBIT : TransferTracing.DIRECTION_CREDIT);
+				  setBalance(secondAccount,secondBalance,netChange.signum()<0 ? TransferTracing.DIRECTION_CREDIT : TransferTracing.DIRECTION_DEBIT);
+				  if(eventListeners.length>0)
+					  publishEvent(netChange.signum()<0 ? AccountEvent.transferred(firstAccount,secondAccount,netChange.negate())
+							  : AccountEvent.transferred(secondAccount,firstAccount,netChange));
+			  }
+		  }
+	  }
+	  }
+	  finally
+	  {
+		  this.hotAccountTracker.record(ordredeAccounts[0].getAccountId(),parentLockAcquiredAt-lockRequestedAt);
+		  this.hotAccountTracker.record(ordredeAccounts[1].getAccountId(),childLockAcquiredAt-parentLockAcquiredAt);
+	  }
+	  
+	  for(int i=0;i<count;i++)
+	  {
+		  if(rejections[i]!=null)
+			  continue;
+		  TransferRequest transferRequest=transferRequests.get(i);
+		  boolean forward=transferRequest.getFromAccountId().equals(firstAccount.getAccountId());
+		  dispatchNotification(forward ? firstAccount : secondAccount,
+				  Constants.DEBIT_NOTIFICATION_MESSAGE+transferRequest.getAmount()+" "+Constants.CURRENT_BALANCE+senderBalances[i]);
+		  dispatchNotification(forward ? secondAccount : firstAccount,
+				  Constants.CREDIT_NOTIFICATION_MESSAGE+transferRequest.getAmount()+" "+Constants.CURRENT_BALANCE+receiverBalances[i]);
+	  }
+	  log.info("Successfully completed {} netted transfer requests between {} and {}",count,firstAccount.getAccountId(),secondAccount.getAccountId());
+	  return netChange.signum()<0 ? new TransferRequest(firstAccount.getAccountId(),secondAccount.getAccountId(),netChange.negate())
+			  : new TransferRequest(secondAccount.getAccountId(),firstAccount.getAccountId(),netChange);
+  }
+  
+  /*
+   * Method will reserve given amount on account without notifying owner, used for debit side of a cross node transfer
+   * @parameter account:Account , amount:BigDecimal
+   * @returns void
+   * @throws TranserMoneyValidationException if account has insufficient balance
+   */
+  public void holdFunds(Account account ,BigDecimal amount) throws TranserMoneyValidationException
+  {
+	  checkWritable();
+	  LockAcquisitionEvent lockEvent=new LockAcquisitionEvent();
+	  lockEvent.begin();
+	  synchronized(account)
+	  {
+		  TransferTracing.commitLock(lockEvent,account.getAccountId(),TransferTracing.MONITOR_ACCOUNT);
+		  TransferValidationEvent balanceValidationEvent=new TransferValidationEvent();
+		  balanceValidationEvent.begin();
+		  MoneyTransferValidator.validateSenderBalance(account,amount);
+		  TransferTracing.commitValidation(balanceValidationEvent,TransferTracing.CHECK_BALANCE);
+		  setBalance(account,account.getBalance().subtract(amount),TransferTracing.DIRECTION_DEBIT);
+		  if(eventListeners.length>0)
+			  publishEvent(AccountEvent.adjusted(account,amount.negate()));
+	  }
+  }
+  
+  /*
+   * Method will give back amount reserved by holdFunds
+   * @parameter account:Account , amount:BigDecimal
+   * @returns void
+   */
+  public void releaseFunds(Account account ,BigDecimal amount)
+  {
+	  checkWritable();
+	  LockAcquisitionEvent lockEvent=new LockAcquisitionEvent();
+	  lockEvent.begin();
+	  synchronized(account)
+	  {
+		  TransferTracing.commitLock(lockEvent,account.getAccountId(),TransferTracing.MONITOR_ACCOUNT);
+		  setBalance(account,account.getBalance().add(amount),TransferTracing.DIRECTION_CREDIT);
+		  if(eventListeners.length>0)
+			  publishEvent(AccountEvent.adjusted(account,amount));
+	  }
+  }
+  
+  /*
+   * Method will notify owner about debit of amount reserved by holdFunds
+   * @parameter account:Account , amount:BigDecimal
+   * @returns void
+   */
+  public void notifyDebit(Account account ,BigDecimal amount)
+  {
+	  dispatchNotification(account,Constants.DEBIT_NOTIFICATION_MESSAGE+amount+" "+Constants.CURRENT_BALANCE+account.getBalance());
+  }
+  
+  /*
+   * Method will credit given amount to account under its lock, used for credit side of a cross node transfer
+   * @parameter account:Account , amount:BigDecimal
+   * @returns void
+   */
+  public void creditAccount(Account account ,BigDecimal amount)
+  {
+	  checkWritable();
+	  LockAcquisitionEvent lockEvent=new LockAcquisitionEvent();
+	  lockEvent.begin();
+	  synchronized(account)
+	  {
+		  TransferTracing.commitLock(lockEvent,account.getAccountId(),TransferTracing.MONITOR_ACCOUNT);
+		  creditMoney(account,amount);
+		  if(eventListeners.length>0)
+			  publishEvent(AccountEvent.adjusted(account,amount));
+	  }
+  }
+  
+  /*
+   * Method will apply an end of day operation (interest, fee, cap) to account balance once per job
+   * Account is locked only while the new balance is computed and set, so live transfers are blocked for that account only and briefly
+   * Job is marked as applied on the account under the same lock, an account already marked by the job is left as it is
+   * @parameter account:Account , jobId:String , operation:UnaryOperator<BigDecimal> (current balance to new balance) , description:String
+   * @returns true if balance changed
+   */
+  public boolean adjustBalance(Account account ,String jobId ,UnaryOperator<BigDecimal> operation ,String description)
+  {
+	  checkWritable();
+	  BigDecimal adjustment;
+	  BigDecimal newBalance;
+	  LockAcquisitionEvent lockEvent=new LockAcquisitionEvent();
+	  lockEvent.begin();
+	  synchronized(account)
+	  {
+		  TransferTracing.commitLock(lockEvent,account.getAccountId(),TransferTracing.MONITOR_ACCOUNT);
+		  if(account.isBatchJobApplied(jobId))
+			  return false;
+		  newBalance=operation.apply(account.getBalance());
+		  adjustment=newBalance.subtract(account.getBalance());
+		  account.markBatchJobApplied(jobId);
+		  if(adjustment.signum()==0)
+			  return false;
+		  setBalance(account,newBalance,TransferTracing.DIRECTION_ADJUSTMENT);
+		  if(eventListeners.length>0)
+			  publishEvent(AccountEvent.adjusted(account,adjustment));
+	  }
+	  dispatchNotification(account,Constants.BATCH_ADJUSTMENT_NOTIFICATION_MESSAGE+description+" "+adjustment+" "+Constants.CURRENT_BALANCE+newBalance);
+	  return true;
+  }
+  
+  private void publishEvent(AccountEvent event)
+  {
+	  for(AccountEventListener listener : eventListeners)
+		  listener.onAccountEvent(event);
+  }
+  
   /*
    * Method will debit given amount from fromaccount and will notify FromAccount about transfer
    * @parameter fromAccount:Account , amount:BigDecimal
@@ -97,8 +476,8 @@ public class AccountsService {
    */
   private void debitMoney(Account fromAccount ,BigDecimal amount)
   {
-	  fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-	  this.notificationService.notifyAboutTransfer(fromAccount,Constants.DEBIT_NOTIFICATION_MESSAGE+amount+" "+Constants.CURRENT_BALANCE+fromAccount.getBalance());
+	  setBalance(fromAccount,fromAccount.getBalance().subtract(amount),TransferTracing.DIRECTION_DEBIT);
+	  dispatchNotification(fromAccount,Constants.DEBIT_NOTIFICATION_MESSAGE+amount+" "+Constants.CURRENT_BALANCE+fromAccount.getBalance());
   }
   
   /*
@@ -108,8 +487,26 @@ public class AccountsService {
    */
   private void creditMoney(Account toAccount ,BigDecimal amount)
   {
-	  toAccount.setBalance(toAccount.getBalance().add(amount));
-	  this.notificationService.notifyAboutTransfer(toAccount,Constants.CREDIT_NOTIFICATION_MESSAGE+amount+" "+Constants.CURRENT_BALANCE+toAccount.getBalance());
+	  setBalance(toAccount,toAccount.getBalance().add(amount),TransferTracing.DIRECTION_CREDIT);
+	  dispatchNotification(toAccount,Constants.CREDIT_NOTIFICATION_MESSAGE+amount+" "+Constants.CURRENT_BALANCE+toAccount.getBalance());
+  }
+  
+  // balance change of a locked account, traced as a JFR event
+  private void setBalance(Account account ,BigDecimal newBalance ,String direction)
+  {
+	  BalanceMutationEvent mutationEvent=new BalanceMutationEvent();
+	  mutationEvent.begin();
+	  account.setBalance(newBalance);
+	  TransferTracing.commitMutation(mutationEvent,account.getAccountId(),direction);
+  }
+  
+  // notification dispatch of a transfer, traced as a JFR event
+  private void dispatchNotification(Account account ,String transferDescription)
+  {
+	  NotificationDispatchEvent notificationEvent=new NotificationDispatchEvent();
+	  notificationEvent.begin();
+	  this.notificationService.notifyAboutTransfer(account,transferDescription);
+	  TransferTracing.commitNotification(notificationEvent,account.getAccountId());
   }
   
   /*
@@ -0,0 +1,101 @@
+package com.dws.challenge.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.domain.TransferResult;
+import com.dws.challenge.exception.ClusterCommunicationException;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.netting.TransferNettingService;
+import com.dws.challenge.scheduler.ScheduledTransferService;
+import com.dws.challenge.util.Constants;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Processes transfers whose outcome is reported as a TransferResult instead of an exception,
+ * used for batch submissions and by the reactive API. Blocking, callers of the reactive API run it on a bounded executor.
+ */
+@Slf4j
+@Service
+public class TransferBatchService {
+
+	private final ScheduledTransferService scheduledTransferService;
+
+	private final TransferNettingService transferNettingService;
+
+	public TransferBatchService(ScheduledTransferService scheduledTransferService, TransferNettingService transferNettingService)
+	{
+		this.scheduledTransferService = scheduledTransferService;
+		this.transferNettingService = transferNettingService;
+	}
+
+	/*
+	 * Method will schedule a future dated transfer or transfer money right away
+	 * @parameter transferRequest:TransferRequest
+	 * @returns outcome of transfer
+	 */
+	public TransferResult transferMoney(TransferRequest transferRequest)
+	{
+		try {
+			if(scheduledTransferService.isFutureDated(transferRequest))
+				return new TransferResult(HttpStatus.ACCEPTED.value(), Constants.TRANSFER_SCHEDULED_MESSAGE + scheduledTransferService.scheduleTransfer(transferRequest));
+			transferNettingService.transferMoney(transferRequest);
+			return new TransferResult(HttpStatus.CREATED.value(), Constants.TRANSACTION_SUCCESSFULL_MESSAGE);
+		} catch(Exception e) {
+			return toTransferResult(e);
+		}
+	}
+
+	/*
+	 * Method will process every transfer of a batch, future dated ones are scheduled and the others are netted per account pair if netting is enabled
+	 * @parameter transferRequests:List<TransferRequest>
+	 * @returns outcome per transfer in request order
+	 */
+	public List<TransferResult> transferMoney(List<TransferRequest> transferRequests)
+	{
+		TransferResult[] results = new TransferResult[transferRequests.size()];
+		List<TransferRequest> immediateRequests = new ArrayList<>();
+		List<Integer> immediatePositions = new ArrayList<>();
+		for(int i=0;i<transferRequests.size();i++) {
+			TransferRequest transferRequest = transferRequests.get(i);
+			if(scheduledTransferService.isFutureDated(transferRequest))
+				results[i] = transferMoney(transferRequest);
+			else {
+				immediateRequests.add(transferRequest);
+				immediatePositions.add(i);
+			}
+		}
+		List<CompletableFuture<Void>> outcomes = transferNettingService.transferMoney(immediateRequests);
+		for(int i=0;i<outcomes.size();i++) {
+			try {
+				outcomes.get(i).join();
+				results[immediatePositions.get(i)] = new TransferResult(HttpStatus.CREATED.value(), Constants.TRANSACTION_SUCCESSFULL_MESSAGE);
+			} catch(CompletionException e) {
+				results[immediatePositions.get(i)] = toTransferResult(e.getCause());
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	public static TransferResult toTransferResult(Throwable exception)
+	{
+		if(exception instanceof TranserMoneyValidationException)
+			return new TransferResult(HttpStatus.BAD_REQUEST.value(), exception.getMessage());
+		if(exception instanceof ClusterCommunicationException)
+			return new TransferResult(HttpStatus.SERVICE_UNAVAILABLE.value(), Constants.NODE_UNAVAILABLE_ERROR_MESSAGE);
+		if(exception instanceof TransfersOverloadedException || exception instanceof ReadOnlyReplicaException)
+			return new TransferResult(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage());
+		log.error("Caught Exception for transfer request {}", exception.getMessage());
+		return new TransferResult(HttpStatus.INTERNAL_SERVER_ERROR.value(), Constants.INTERNAL_SERVER_ERROR_MESSAGE);
+	}
+}
@@ -0,0 +1,25 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Lookup of from and to accounts in the repository
+ */
+@Name("com.dws.challenge.AccountLookup")
+@Label("Account Lookup")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class AccountLookupEvent extends Event {
+
+	@Label("From Account Id")
+	private String fromAccountId;
+
+	@Label("To Account Id")
+	private String toAccountId;
+}
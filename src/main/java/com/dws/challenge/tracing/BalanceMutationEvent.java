@@ -0,0 +1,27 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Debit or credit of an account balance
+ */
+@Name("com.dws.challenge.BalanceMutation")
+@Label("Balance Mutation")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class BalanceMutationEvent extends Event {
+
+	@Label("Account Id")
+	private String accountId;
+
+	@Label("Direction")
+	@Description("debit or credit")
+	private String direction;
+}
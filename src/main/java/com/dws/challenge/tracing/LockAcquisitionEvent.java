@@ -0,0 +1,27 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Wait to acquire the monitor of one account, parent is the account locked first
+ */
+@Name("com.dws.challenge.LockAcquisition")
+@Label("Lock Acquisition")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class LockAcquisitionEvent extends Event {
+
+	@Label("Account Id")
+	private String accountId;
+
+	@Label("Monitor")
+	@Description("parent or child")
+	private String monitor;
+}
@@ -0,0 +1,22 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Notification of an account owner about a transfer
+ */
+@Name("com.dws.challenge.NotificationDispatch")
+@Label("Notification Dispatch")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class NotificationDispatchEvent extends Event {
+
+	@Label("Account Id")
+	private String accountId;
+}
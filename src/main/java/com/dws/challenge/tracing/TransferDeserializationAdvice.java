@@ -0,0 +1,67 @@
+package com.dws.challenge.tracing;
+
+import java.lang.reflect.Type;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.dws.challenge.domain.TransferBatchRequest;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.web.AccountsController;
+
+/*
+ * Traces reading and deserialization of transfer request bodies as JFR events.
+ * Event is kept in a thread local between before and after body read only while a recording is running.
+ * Servlet stack only : WebFlux decodes bodies asynchronously across event loop callbacks, so in the reactive deployment
+ * transfers are recorded without a deserialization stage.
+ */
+@ControllerAdvice(assignableTypes = AccountsController.class)
+public class TransferDeserializationAdvice extends RequestBodyAdviceAdapter {
+
+	private static final ThreadLocal<TransferDeserializationEvent> CURRENT_EVENT = new ThreadLocal<>();
+
+	@Override
+	public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType)
+	{
+		return targetType==TransferRequest.class || targetType==TransferBatchRequest.class;
+	}
+
+	@Override
+	public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType)
+	{
+		TransferDeserializationEvent event = new TransferDeserializationEvent();
+		if(event.isEnabled()) {
+			event.begin();
+			CURRENT_EVENT.set(event);
+		}
+		return inputMessage;
+	}
+
+	@Override
+	public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType)
+	{
+		TransferDeserializationEvent event = CURRENT_EVENT.get();
+		if(event!=null) {
+			CURRENT_EVENT.remove();
+			event.end();
+			if(event.shouldCommit()) {
+				event.setBodyType(((Class<?>) targetType).getSimpleName());
+				event.commit();
+			}
+		}
+		return body;
+	}
+
+	@Override
+	public Object handleEmptyBody(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType)
+	{
+		CURRENT_EVENT.remove();
+		return body;
+	}
+}
@@ -0,0 +1,22 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Reading and deserializing a transfer request body in the controller
+ */
+@Name("com.dws.challenge.TransferDeserialization")
+@Label("Transfer Deserialization")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class TransferDeserializationEvent extends Event {
+
+	@Label("Body Type")
+	private String bodyType;
+}
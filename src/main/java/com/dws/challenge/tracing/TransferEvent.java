@@ -0,0 +1,31 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * Whole transfer in AccountsService, stage events of the same thread within its duration belong to it
+ */
+@Name("com.dws.challenge.Transfer")
+@Label("Transfer")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class TransferEvent extends Event {
+
+	@Label("From Account Id")
+	private String fromAccountId;
+
+	@Label("To Account Id")
+	private String toAccountId;
+
+	@Label("Amount")
+	private String amount;
+
+	@Label("Outcome")
+	private String outcome;
+}
@@ -0,0 +1,141 @@
+package com.dws.challenge.tracing;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/*
+ * Reads a JFR recording and prints where time of transfers goes :
+ * duration statistics per stage and, for the slowest transfers, the stages of each of them.
+ * Stage events belong to the transfer running on the same thread when they happened, deserialization
+ * is the event right before the transfer on the same thread.
+ * Run with : gradle analyzeTransferTrace -Precording=transfers.jfr [-Pslowest=20]
+ */
+public class TransferTraceAnalyzer {
+
+	static final String EVENT_PREFIX = "com.dws.challenge.";
+
+	static final String TRANSFER_STAGE = "Transfer";
+
+	static final String DESERIALIZATION_STAGE = "TransferDeserialization";
+
+	// field telling apart events of the same type, e.g. parent and child lock
+	private static final Map<String, String> STAGE_DISCRIMINATORS = Map.of(
+			"TransferValidation", "check",
+			"LockAcquisition", "monitor",
+			"BalanceMutation", "direction");
+
+	private final List<RecordedEvent> transfers = new ArrayList<>();
+
+	private final Map<Long, List<RecordedEvent>> eventsByThread = new HashMap<>();
+
+	private final Map<String, List<Long>> durationsByStage = new TreeMap<>();
+
+	public TransferTraceAnalyzer(List<RecordedEvent> events)
+	{
+		for(RecordedEvent event : events) {
+			if(!event.getEventType().getName().startsWith(EVENT_PREFIX) || event.getThread()==null)
+				continue;
+			durationsByStage.computeIfAbsent(stage(event), stage -> new ArrayList<>()).add(event.getDuration().toNanos());
+			eventsByThread.computeIfAbsent(event.getThread().getJavaThreadId(), thread -> new ArrayList<>()).add(event);
+			if(stage(event).equals(TRANSFER_STAGE))
+				transfers.add(event);
+		}
+		for(List<RecordedEvent> threadEvents : eventsByThread.values())
+			threadEvents.sort(Comparator.comparing(RecordedEvent::getStartTime));
+		for(List<Long> durations : durationsByStage.values())
+			durations.sort(null);
+		transfers.sort(Comparator.comparing((RecordedEvent event) -> event.getDuration()).reversed());
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length<1) {
+			System.err.println("Usage: TransferTraceAnalyzer <recording.jfr> [slowest transfers to show]");
+			System.exit(1);
+		}
+		int slowest = args.length>1 ? Integer.parseInt(args[1]) : 10;
+		new TransferTraceAnalyzer(RecordingFile.readAllEvents(Path.of(args[0]))).print(System.out, slowest);
+	}
+
+	public void print(PrintStream out, int slowest)
+	{
+		List<Long> transferDurations = durationsByStage.getOrDefault(TRANSFER_STAGE, List.of());
+		long transferTotal = transferDurations.stream().mapToLong(Long::longValue).sum();
+		out.printf("%-34s %9s %11s %11s %11s %11s %11s %7s%n", "Stage", "Count", "Mean us", "P50 us", "P99 us", "P999 us", "Max us", "Share");
+		for(Map.Entry<String, List<Long>> stage : durationsByStage.entrySet()) {
+			List<Long> durations = stage.getValue();
+			long total = durations.stream().mapToLong(Long::longValue).sum();
+			String share = transferTotal==0 || stage.getKey().equals(TRANSFER_STAGE) ? "" : String.format("%6.1f%%", 100.0 * total / transferTotal);
+			out.printf("%-34s %9d %11.1f %11.1f %11.1f %11.1f %11.1f %7s%n", stage.getKey(), durations.size(),
+					micros(total / durations.size()), micros(percentile(durations, 0.50)), micros(percentile(durations, 0.99)),
+					micros(percentile(durations, 0.999)), micros(durations.get(durations.size() - 1)), share);
+		}
+		out.println();
+		out.printf("Slowest %d of %d transfers%n", Math.min(slowest, transfers.size()), transfers.size());
+		for(RecordedEvent transfer : transfers.subList(0, Math.min(slowest, transfers.size()))) {
+			out.printf("%s %s -> %s amount %s %s : %.1f us%n", transfer.getStartTime(), transfer.getString("fromAccountId"),
+					transfer.getString("toAccountId"), transfer.getString("amount"), transfer.getString("outcome"),
+					micros(transfer.getDuration().toNanos()));
+			for(RecordedEvent stage : stagesOf(transfer))
+				out.printf("    %-30s %11.1f us%n", stage(stage), micros(stage.getDuration().toNanos()));
+		}
+	}
+
+	public Map<String, List<Long>> getDurationsByStage()
+	{
+		return durationsByStage;
+	}
+
+	/*
+	 * Method will find stage events of a transfer
+	 * @parameter transfer:RecordedEvent
+	 * @returns deserialization right before the transfer (if any) and stages within it, in start order
+	 */
+	public List<RecordedEvent> stagesOf(RecordedEvent transfer)
+	{
+		List<RecordedEvent> threadEvents = eventsByThread.get(transfer.getThread().getJavaThreadId());
+		int position = threadEvents.indexOf(transfer);
+		List<RecordedEvent> stages = new ArrayList<>();
+		if(position>0) {
+			RecordedEvent previous = threadEvents.get(position - 1);
+			if(stage(previous).equals(DESERIALIZATION_STAGE) && !previous.getEndTime().isAfter(transfer.getStartTime()))
+				stages.add(previous);
+		}
+		for(int i=position + 1;i<threadEvents.size();i++) {
+			RecordedEvent event = threadEvents.get(i);
+			if(event.getStartTime().isAfter(transfer.getEndTime()))
+				break;
+			if(!event.getEndTime().isAfter(transfer.getEndTime()))
+				stages.add(event);
+		}
+		return stages;
+	}
+
+	static String stage(RecordedEvent event)
+	{
+		String stage = event.getEventType().getName().substring(EVENT_PREFIX.length());
+		String discriminator = STAGE_DISCRIMINATORS.get(stage);
+		return discriminator==null ? stage : stage + "[" + event.getString(discriminator) + "]";
+	}
+
+	private static long percentile(List<Long> sortedDurations, double percentile)
+	{
+		int index = (int) Math.ceil(percentile * sortedDurations.size()) - 1;
+		return sortedDurations.get(Math.max(0, index));
+	}
+
+	private static double micros(long nanos)
+	{
+		return nanos / 1_000.0;
+	}
+}
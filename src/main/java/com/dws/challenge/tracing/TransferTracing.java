@@ -0,0 +1,101 @@
+package com.dws.challenge.tracing;
+
+import java.math.BigDecimal;
+
+/*
+ * Helpers ending and committing transfer stage events.
+ * Events are plain JFR events : while no recording is running begin/end/shouldCommit do nothing and the JIT removes
+ * the event allocation, fields (which need string conversions) are filled only when the event is going to be written.
+ */
+public final class TransferTracing {
+
+	public static final String OUTCOME_COMPLETED = "COMPLETED";
+
+	public static final String OUTCOME_REJECTED = "REJECTED";
+
+	public static final String OUTCOME_FAILED = "FAILED";
+
+	// group of transfers between the same accounts applied as one net movement
+	public static final String OUTCOME_NETTED = "NETTED";
+
+	public static final String CHECK_ACCOUNTS = "accounts";
+
+	public static final String CHECK_BALANCE = "balance";
+
+	public static final String MONITOR_PARENT = "parent";
+
+	public static final String MONITOR_CHILD = "child";
+
+	// single account locked by cluster reserve/commit and end of day adjustments
+	public static final String MONITOR_ACCOUNT = "account";
+
+	public static final String DIRECTION_DEBIT = "debit";
+
+	public static final String DIRECTION_CREDIT = "credit";
+
+	public static final String DIRECTION_ADJUSTMENT = "adjustment";
+
+	private TransferTracing()
+	{
+	}
+
+	public static void commitTransfer(TransferEvent event, String fromAccountId, String toAccountId, BigDecimal amount, String outcome)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setFromAccountId(fromAccountId);
+			event.setToAccountId(toAccountId);
+			event.setAmount(amount==null ? null : amount.toPlainString());
+			event.setOutcome(outcome);
+			event.commit();
+		}
+	}
+
+	public static void commitLookup(AccountLookupEvent event, String fromAccountId, String toAccountId)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setFromAccountId(fromAccountId);
+			event.setToAccountId(toAccountId);
+			event.commit();
+		}
+	}
+
+	public static void commitValidation(TransferValidationEvent event, String check)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setCheck(check);
+			event.commit();
+		}
+	}
+
+	public static void commitLock(LockAcquisitionEvent event, String accountId, String monitor)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setAccountId(accountId);
+			event.setMonitor(monitor);
+			event.commit();
+		}
+	}
+
+	public static void commitMutation(BalanceMutationEvent event, String accountId, String direction)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setAccountId(accountId);
+			event.setDirection(direction);
+			event.commit();
+		}
+	}
+
+	public static void commitNotification(NotificationDispatchEvent event, String accountId)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.setAccountId(accountId);
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.dws.challenge.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/*
+ * MoneyTransferValidator check which passed, failed checks show up as REJECTED transfers
+ */
+@Name("com.dws.challenge.TransferValidation")
+@Label("Transfer Validation")
+@Category({ "DWS Challenge", "Transfer" })
+@StackTrace(false)
+@Setter
+public class TransferValidationEvent extends Event {
+
+	@Label("Check")
+	@Description("accounts or balance")
+	private String check;
+}
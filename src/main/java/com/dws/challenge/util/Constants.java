@@ -6,12 +6,30 @@ public class Constants {
 	
 	public static final String DEBIT_NOTIFICATION_MESSAGE="Successfully debited amount ";
 	
+	public static final String BATCH_ADJUSTMENT_NOTIFICATION_MESSAGE="Balance adjusted by end of day job ";
+	
 	public static final String CURRENT_BALANCE="Current Balance : ";
 	
 	public static final String TRANSACTION_SUCCESSFULL_MESSAGE="Transaction Successfull";
 	
+	public static final String TRANSFER_SCHEDULED_MESSAGE="Transfer scheduled with id ";
+	
 	public static final String INTERNAL_SERVER_ERROR_MESSAGE="Error occured while processing request";
 	
+	public static final String TRANSFERS_OVERLOADED_ERROR_MESSAGE="Too many transfers in progress, retry later";
+	
+	public static final String ACCOUNT_NOT_FOUND_ERROR_MESSAGE="Account does not exist";
+	
+	public static final String NODE_UNAVAILABLE_ERROR_MESSAGE="Node owning the account is not available";
+	
+	public static final String READ_ONLY_REPLICA_ERROR_MESSAGE="Standby node is read only, writes go to the primary";
+	
+	public static final String UNKNOWN_CLUSTER_NODE_ERROR_MESSAGE="Caller is not a node of this cluster";
+	
+	public static final int MAX_PAGE_SIZE=1000;
+	
+	public static final String INVALID_PAGE_SIZE_ERROR_MESSAGE="Limit should be between 1 and "+MAX_PAGE_SIZE;
+	
 	public static final String INSUFFICIENT_BALANCE_ERROR_MESSAGE="Insuffiecient balance in senders account";
 	
 	public static final String INVALID_ACCOUNTS_ERROR_MESSAGE="Invalid From/To account";
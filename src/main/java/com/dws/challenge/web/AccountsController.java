@@ -1,42 +1,87 @@
 package com.dws.challenge.web;
 
+import com.dws.challenge.cluster.ClusterClient;
+import com.dws.challenge.cluster.ClusterRouter;
 import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountRepresentation;
+import com.dws.challenge.domain.TransferBatchRequest;
 import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.ClusterCommunicationException;
 import com.dws.challenge.exception.DuplicateAccountIdException;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
 import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.netting.TransferNettingService;
+import com.dws.challenge.scheduler.ScheduledTransferService;
+import com.dws.challenge.service.AccountRepresentationService;
 import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.TransferBatchService;
 import com.dws.challenge.util.Constants;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
 import jakarta.validation.Valid;
 
+// servlet deployment, reactive deployment is served by ReactiveAccountsController
 @RestController
 @RequestMapping("/v1/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class AccountsController {
 
   private final AccountsService accountsService;
 
+  private final ScheduledTransferService scheduledTransferService;
+
+  private final ClusterRouter clusterRouter;
+
+  private final ClusterClient clusterClient;
+
+  private final AccountRepresentationService accountRepresentationService;
+
+  private final TransferNettingService transferNettingService;
+
+  private final TransferBatchService transferBatchService;
+
   @Autowired
-  public AccountsController(AccountsService accountsService) {
+  public AccountsController(AccountsService accountsService, ScheduledTransferService scheduledTransferService,
+      ClusterRouter clusterRouter, ClusterClient clusterClient,
+      AccountRepresentationService accountRepresentationService, TransferNettingService transferNettingService,
+      TransferBatchService transferBatchService) {
     this.accountsService = accountsService;
+    this.transferBatchService = transferBatchService;
+    this.transferNettingService = transferNettingService;
+    this.accountRepresentationService = accountRepresentationService;
+    this.scheduledTransferService = scheduledTransferService;
+    this.clusterRouter = clusterRouter;
+    this.clusterClient = clusterClient;
   }
 
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Object> createAccount(@RequestBody @Valid Account account) {
+  public ResponseEntity<Object> createAccount(@RequestBody @Valid Account account,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (this.clusterRouter.shouldForward(account.getAccountId(), forwardedBy, secret)) {
+      return this.clusterClient.forward(this.clusterRouter.ownerOf(account.getAccountId()), "POST", "/v1/accounts", account);
+    }
     log.info("Creating account {}", account);
 
     try {
@@ -48,25 +93,76 @@ public class AccountsController {
     return new ResponseEntity<>(HttpStatus.CREATED);
   }
 
+  // accounts of this node only, in cluster mode every node pages through its own share
+  @GetMapping
+  public ResponseEntity<Object> listAccounts(@RequestParam(value = "after", required = false) String after,
+      @RequestParam(value = "prefix", required = false) String prefix,
+      @RequestParam(value = "before", required = false) String before,
+      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+    if (limit < 1 || limit > Constants.MAX_PAGE_SIZE) {
+      return new ResponseEntity<>(Constants.INVALID_PAGE_SIZE_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+    }
+    log.debug("Listing accounts after {} prefix {} before {} limit {}", after, prefix, before, limit);
+    return ResponseEntity.ok(this.accountsService.listAccounts(after, prefix, before, limit));
+  }
+
   @GetMapping(path = "/{accountId}")
-  public Account getAccount(@PathVariable("accountId") String accountId) {
-    log.info("Retrieving account for id {}", accountId);
-    return this.accountsService.getAccount(accountId);
+  public ResponseEntity<Object> getAccount(@PathVariable("accountId") String accountId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) throws JsonProcessingException {
+    if (this.clusterRouter.shouldForward(accountId, forwardedBy, secret)) {
+      HttpHeaders forwardedHeaders = new HttpHeaders();
+      if (ifNoneMatch != null) {
+        forwardedHeaders.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+      }
+      return this.clusterClient.forward(this.clusterRouter.ownerOf(accountId), "GET", ClusterClient.accountPath(accountId), null, forwardedHeaders);
+    }
+    log.debug("Retrieving account for id {}", accountId);
+    AccountRepresentation representation = this.accountRepresentationService.getRepresentation(accountId);
+    if (representation == null) {
+      return ResponseEntity.ok().build();
+    }
+    // unchanged accounts are answered with 304 and are never serialized again
+    if (representation.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(representation.getETag()).build();
+    }
+    return ResponseEntity.ok().eTag(representation.getETag()).contentType(MediaType.APPLICATION_JSON).body(representation.getJson());
   }
   
   
   @PostMapping(path = "/transfer",consumes = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Object> transferMoney(@Valid @RequestBody TransferRequest transferRequest) {
+  public ResponseEntity<Object> transferMoney(@Valid @RequestBody TransferRequest transferRequest,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    // transfer is coordinated by node owning from account
+    if (this.clusterRouter.shouldForward(transferRequest.getFromAccountId(), forwardedBy, secret)) {
+      return this.clusterClient.forward(this.clusterRouter.ownerOf(transferRequest.getFromAccountId()), "POST", "/v1/accounts/transfer", transferRequest);
+    }
     log.info("Recieved transfer request {}", transferRequest);
     try 
     {
-    	this.accountsService.transferMoney(transferRequest);
+    	if(this.scheduledTransferService.isFutureDated(transferRequest))
+    	{
+    	  long scheduledTransferId=this.scheduledTransferService.scheduleTransfer(transferRequest);
+    	  return new ResponseEntity<>(Constants.TRANSFER_SCHEDULED_MESSAGE+scheduledTransferId, HttpStatus.ACCEPTED);
+    	}
+    	this.transferNettingService.transferMoney(transferRequest);
     } 
     catch (TranserMoneyValidationException validationException) 
     {
       log.error("Caught TranserMoneyValidationException exception for transferMoney request {}",validationException.getMessage());
       return new ResponseEntity<>(validationException.getMessage(), HttpStatus.BAD_REQUEST);
     }
+    catch (ClusterCommunicationException communicationException)
+    {
+      log.error("Caught ClusterCommunicationException for transferMoney request {}",communicationException.getMessage());
+      return new ResponseEntity<>(Constants.NODE_UNAVAILABLE_ERROR_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    catch (ReadOnlyReplicaException readOnlyException)
+    {
+      return new ResponseEntity<>(readOnlyException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
     catch (Exception e)
     {
     	log.error("Caught Exception  for transferMoney request {}",e.getMessage());
@@ -75,4 +171,26 @@ public class AccountsController {
 
     return new ResponseEntity<>(Constants.TRANSACTION_SUCCESSFULL_MESSAGE,HttpStatus.CREATED);
   }
+
+  /*
+   * Transfers of a batch are processed on this node (transfers of other nodes' accounts are coordinated from here),
+   * with netting enabled transfers of the same account pair are applied together
+   * Response holds one result per transfer in request order
+   */
+  @PostMapping(path = "/transfer/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Object> transferMoneyBatch(@Valid @RequestBody TransferBatchRequest batchRequest) {
+    log.info("Recieved batch of {} transfer requests", batchRequest.getTransfers().size());
+    return new ResponseEntity<>(this.transferBatchService.transferMoney(batchRequest.getTransfers()), HttpStatus.OK);
+  }
+
+  @ExceptionHandler(ClusterCommunicationException.class)
+  public ResponseEntity<Object> handleClusterCommunicationException(ClusterCommunicationException communicationException) {
+    log.error("Caught ClusterCommunicationException {}", communicationException.getMessage());
+    return new ResponseEntity<>(Constants.NODE_UNAVAILABLE_ERROR_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<Object> handleReadOnlyReplicaException(ReadOnlyReplicaException readOnlyException) {
+    return new ResponseEntity<>(readOnlyException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
 }
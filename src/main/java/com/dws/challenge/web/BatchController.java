@@ -0,0 +1,75 @@
+package com.dws.challenge.web;
+
+import com.dws.challenge.batch.BatchJobRequest;
+import com.dws.challenge.batch.BatchJobState;
+import com.dws.challenge.batch.EndOfDayBatchEngine;
+import com.dws.challenge.exception.BatchJobNotFoundException;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
+
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+ * End of day jobs (interest, fees, balance caps), jobs run in background and are polled by id
+ */
+@RestController
+@RequestMapping("/v1/batch/jobs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class BatchController {
+
+  private final EndOfDayBatchEngine batchEngine;
+
+  @Autowired
+  public BatchController(EndOfDayBatchEngine batchEngine) {
+    this.batchEngine = batchEngine;
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BatchJobState> startJob(@RequestBody @Valid BatchJobRequest request) {
+    log.info("Starting end of day job {}", request);
+    return new ResponseEntity<>(this.batchEngine.startJob(request), HttpStatus.ACCEPTED);
+  }
+
+  @GetMapping(path = "/{jobId}")
+  public BatchJobState getJob(@PathVariable("jobId") String jobId) {
+    return this.batchEngine.getJob(jobId);
+  }
+
+  @PostMapping(path = "/{jobId}/pause")
+  public BatchJobState pauseJob(@PathVariable("jobId") String jobId) {
+    return this.batchEngine.pauseJob(jobId);
+  }
+
+  @PostMapping(path = "/{jobId}/resume")
+  public BatchJobState resumeJob(@PathVariable("jobId") String jobId) {
+    return this.batchEngine.resumeJob(jobId);
+  }
+
+  @PostMapping(path = "/{jobId}/cancel")
+  public BatchJobState cancelJob(@PathVariable("jobId") String jobId) {
+    return this.batchEngine.cancelJob(jobId);
+  }
+
+  @ExceptionHandler(BatchJobNotFoundException.class)
+  public ResponseEntity<Object> handleJobNotFound(BatchJobNotFoundException exception) {
+    return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<Object> handleReadOnlyReplicaException(ReadOnlyReplicaException readOnlyException) {
+    return new ResponseEntity<>(readOnlyException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+}
@@ -0,0 +1,96 @@
+package com.dws.challenge.web;
+
+import com.dws.challenge.cluster.ClusterClient;
+import com.dws.challenge.cluster.ClusterRouter;
+import com.dws.challenge.cluster.ClusterTransferCommand;
+import com.dws.challenge.cluster.ClusterTransferParticipant;
+import com.dws.challenge.cluster.ClusterTransferService;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.util.Constants;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+ * Internal endpoints called by the coordinating node of a cross node transfer (and by participants asking for its outcome)
+ * Only nodes presenting the cluster shared secret are served
+ */
+@RestController
+@RequestMapping("/v1/internal/cluster")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class ClusterController {
+
+  private final ClusterTransferParticipant participant;
+
+  private final ClusterTransferService clusterTransferService;
+
+  private final ClusterRouter clusterRouter;
+
+  @Autowired
+  public ClusterController(ClusterTransferParticipant participant, ClusterTransferService clusterTransferService,
+      ClusterRouter clusterRouter) {
+    this.participant = participant;
+    this.clusterTransferService = clusterTransferService;
+    this.clusterRouter = clusterRouter;
+  }
+
+  @PostMapping(path = "/prepare", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Object> prepare(@RequestBody ClusterTransferCommand command,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return rejectCaller("prepare");
+    }
+    try {
+      this.participant.prepare(command);
+    } catch (TranserMoneyValidationException validationException) {
+      log.error("Rejected prepare of cluster transfer {} {}", command.getTransferId(), validationException.getMessage());
+      return new ResponseEntity<>(validationException.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+    return new ResponseEntity<>(HttpStatus.OK);
+  }
+
+  @PostMapping(path = "/commit/{transferId}")
+  public ResponseEntity<Object> commit(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return rejectCaller("commit");
+    }
+    this.participant.commit(transferId);
+    return new ResponseEntity<>(HttpStatus.OK);
+  }
+
+  @PostMapping(path = "/abort/{transferId}")
+  public ResponseEntity<Object> abort(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return rejectCaller("abort");
+    }
+    this.participant.abort(transferId);
+    return new ResponseEntity<>(HttpStatus.OK);
+  }
+
+  @PostMapping(path = "/outcome/{transferId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Object> outcome(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return rejectCaller("outcome");
+    }
+    return new ResponseEntity<>(this.clusterTransferService.resolveOutcome(transferId), HttpStatus.OK);
+  }
+
+  private ResponseEntity<Object> rejectCaller(String operation) {
+    log.warn("Rejected {} call of a caller which is not a node of this cluster", operation);
+    return new ResponseEntity<>(Constants.UNKNOWN_CLUSTER_NODE_ERROR_MESSAGE, HttpStatus.FORBIDDEN);
+  }
+}
@@ -0,0 +1,217 @@
+package com.dws.challenge.web;
+
+import com.dws.challenge.cluster.ClusterClient;
+import com.dws.challenge.cluster.ClusterRouter;
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountRepresentation;
+import com.dws.challenge.domain.BalanceUpdate;
+import com.dws.challenge.domain.TransferBatchRequest;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.domain.TransferResult;
+import com.dws.challenge.exception.ClusterCommunicationException;
+import com.dws.challenge.exception.DuplicateAccountIdException;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.reactive.BalanceUpdatePublisher;
+import com.dws.challenge.reactive.ReactiveTransferFacade;
+import com.dws.challenge.service.AccountRepresentationService;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.TransferBatchService;
+import com.dws.challenge.util.Constants;
+
+import java.time.Duration;
+import java.util.Set;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive deployment (spring.profiles.active=reactive) of the accounts API, same endpoints as AccountsController plus streams.
+ * Event loop threads only do non blocking work (map lookups, cached JSON), anything which can wait on account monitors,
+ * the netting window or other nodes runs on the bounded executor of ReactiveTransferFacade, a full executor answers 503.
+ * POST /transfer/stream reads NDJSON transfers and writes NDJSON results, at most reactive.stream-max-in-flight transfers of a
+ * stream are in progress and more are read from the connection only when some complete, so a fast producer is slowed down by TCP.
+ */
+@RestController
+@RequestMapping("/v1/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveAccountsController {
+
+  private final AccountsService accountsService;
+
+  private final AccountRepresentationService accountRepresentationService;
+
+  private final ReactiveTransferFacade transferFacade;
+
+  private final BalanceUpdatePublisher balanceUpdatePublisher;
+
+  private final ClusterRouter clusterRouter;
+
+  private final ClusterClient clusterClient;
+
+  private final Validator validator;
+
+  private final int streamMaxInFlight;
+
+  private final Duration heartbeatInterval;
+
+  public ReactiveAccountsController(AccountsService accountsService, AccountRepresentationService accountRepresentationService,
+      ReactiveTransferFacade transferFacade, BalanceUpdatePublisher balanceUpdatePublisher, ClusterRouter clusterRouter,
+      ClusterClient clusterClient, Validator validator,
+      @Value("${reactive.stream-max-in-flight:64}") int streamMaxInFlight,
+      @Value("${reactive.sse-heartbeat-seconds:15}") long heartbeatSeconds) {
+    this.accountsService = accountsService;
+    this.accountRepresentationService = accountRepresentationService;
+    this.transferFacade = transferFacade;
+    this.balanceUpdatePublisher = balanceUpdatePublisher;
+    this.clusterRouter = clusterRouter;
+    this.clusterClient = clusterClient;
+    this.validator = validator;
+    this.streamMaxInFlight = streamMaxInFlight;
+    this.heartbeatInterval = Duration.ofSeconds(heartbeatSeconds);
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> createAccount(@RequestBody @Valid Account account,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (this.clusterRouter.shouldForward(account.getAccountId(), forwardedBy, secret)) {
+      return this.transferFacade.submit(() -> this.clusterClient.forward(this.clusterRouter.ownerOf(account.getAccountId()), "POST", "/v1/accounts", account));
+    }
+    log.info("Creating account {}", account);
+    try {
+      this.accountsService.createAccount(account);
+    } catch (DuplicateAccountIdException daie) {
+      return Mono.just(new ResponseEntity<>(daie.getMessage(), HttpStatus.BAD_REQUEST));
+    }
+    return Mono.just(new ResponseEntity<>(HttpStatus.CREATED));
+  }
+
+  @GetMapping
+  public Mono<ResponseEntity<Object>> listAccounts(@RequestParam(value = "after", required = false) String after,
+      @RequestParam(value = "prefix", required = false) String prefix,
+      @RequestParam(value = "before", required = false) String before,
+      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+    if (limit < 1 || limit > Constants.MAX_PAGE_SIZE) {
+      return Mono.just(new ResponseEntity<>(Constants.INVALID_PAGE_SIZE_ERROR_MESSAGE, HttpStatus.BAD_REQUEST));
+    }
+    return Mono.just(ResponseEntity.ok(this.accountsService.listAccounts(after, prefix, before, limit)));
+  }
+
+  @GetMapping(path = "/{accountId}")
+  public Mono<ResponseEntity<Object>> getAccount(@PathVariable("accountId") String accountId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (this.clusterRouter.shouldForward(accountId, forwardedBy, secret)) {
+      HttpHeaders forwardedHeaders = new HttpHeaders();
+      if (ifNoneMatch != null) {
+        forwardedHeaders.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+      }
+      return this.transferFacade.submit(() -> this.clusterClient.forward(this.clusterRouter.ownerOf(accountId), "GET", ClusterClient.accountPath(accountId), null, forwardedHeaders));
+    }
+    Account account = this.accountsService.getAccount(accountId);
+    if (account == null) {
+      return Mono.just(ResponseEntity.ok().build());
+    }
+    // unchanged accounts are answered from the cache on the event loop, only serialization may wait for the account lock
+    AccountRepresentation cached = this.accountRepresentationService.getCachedRepresentation(account);
+    Mono<AccountRepresentation> representation = cached != null ? Mono.just(cached)
+      : this.transferFacade.submit(() -> this.accountRepresentationService.getRepresentation(accountId));
+    return representation.map(current -> {
+      if (current.matches(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.getETag()).<Object>build();
+      }
+      return ResponseEntity.ok().eTag(current.getETag()).contentType(MediaType.APPLICATION_JSON).<Object>body(current.getJson());
+    });
+  }
+
+  /*
+   * Current balance followed by every committed change, as server sent events of this node's account
+   * Slow clients get the latest balance instead of every intermediate one, comments are sent as heartbeat
+   */
+  @GetMapping(path = "/{accountId}/balance-updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<BalanceUpdate>> balanceUpdates(@PathVariable("accountId") String accountId) {
+    Account account = this.accountsService.getAccount(accountId);
+    if (account == null) {
+      return Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, Constants.ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+    }
+    Flux<ServerSentEvent<BalanceUpdate>> updates = this.balanceUpdatePublisher.balanceUpdates(account)
+      .map(update -> ServerSentEvent.builder(update).event("balance").build());
+    Flux<ServerSentEvent<BalanceUpdate>> heartbeats = Flux.interval(this.heartbeatInterval)
+      .map(tick -> ServerSentEvent.<BalanceUpdate>builder().comment("heartbeat").build());
+    return Flux.merge(updates, heartbeats);
+  }
+
+  @PostMapping(path = "/transfer", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> transferMoney(@Valid @RequestBody TransferRequest transferRequest,
+      @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (this.clusterRouter.shouldForward(transferRequest.getFromAccountId(), forwardedBy, secret)) {
+      return this.transferFacade.submit(() -> this.clusterClient.forward(this.clusterRouter.ownerOf(transferRequest.getFromAccountId()), "POST", "/v1/accounts/transfer", transferRequest));
+    }
+    log.info("Recieved transfer request {}", transferRequest);
+    return this.transferFacade.transferMoney(transferRequest)
+      .map(result -> ResponseEntity.status(result.getStatus()).body((Object) result.getMessage()));
+  }
+
+  @PostMapping(path = "/transfer/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> transferMoneyBatch(@Valid @RequestBody TransferBatchRequest batchRequest) {
+    log.info("Recieved batch of {} transfer requests", batchRequest.getTransfers().size());
+    return this.transferFacade.transferMoney(batchRequest.getTransfers()).map(results -> ResponseEntity.ok((Object) results));
+  }
+
+  @PostMapping(path = "/transfer/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<TransferResult> transferMoneyStream(@RequestBody Flux<TransferRequest> transferRequests) {
+    return transferRequests.flatMapSequential(this::transferValidated, this.streamMaxInFlight, 1);
+  }
+
+  private Mono<TransferResult> transferValidated(TransferRequest transferRequest) {
+    Set<ConstraintViolation<TransferRequest>> violations = this.validator.validate(transferRequest);
+    if (!violations.isEmpty()) {
+      return Mono.just(new TransferResult(HttpStatus.BAD_REQUEST.value(), violations.iterator().next().getMessage()));
+    }
+    // a refused transfer of a stream is answered in its result, the stream goes on
+    return this.transferFacade.transferMoney(transferRequest)
+      .onErrorResume(TransfersOverloadedException.class, e -> Mono.just(TransferBatchService.toTransferResult(e)));
+  }
+
+  @ExceptionHandler(TransfersOverloadedException.class)
+  public ResponseEntity<Object> handleTransfersOverloaded(TransfersOverloadedException overloadedException) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(overloadedException.getMessage());
+  }
+
+  @ExceptionHandler(ClusterCommunicationException.class)
+  public ResponseEntity<Object> handleClusterCommunicationException(ClusterCommunicationException communicationException) {
+    log.error("Caught ClusterCommunicationException {}", communicationException.getMessage());
+    return new ResponseEntity<>(Constants.NODE_UNAVAILABLE_ERROR_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<Object> handleReadOnlyReplicaException(ReadOnlyReplicaException readOnlyException) {
+    return new ResponseEntity<>(readOnlyException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+}
@@ -0,0 +1,89 @@
+package com.dws.challenge.web;
+
+import com.dws.challenge.batch.BatchJobRequest;
+import com.dws.challenge.batch.BatchJobState;
+import com.dws.challenge.batch.EndOfDayBatchEngine;
+import com.dws.challenge.exception.BatchJobNotFoundException;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.reactive.ReactiveTransferFacade;
+
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive deployment of BatchController, engine calls may read checkpoints from disk and take the checkpoint lock,
+ * so they run on the bounded executor of ReactiveTransferFacade
+ */
+@RestController
+@RequestMapping("/v1/batch/jobs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveBatchController {
+
+  private final EndOfDayBatchEngine batchEngine;
+
+  private final ReactiveTransferFacade transferFacade;
+
+  @Autowired
+  public ReactiveBatchController(EndOfDayBatchEngine batchEngine, ReactiveTransferFacade transferFacade) {
+    this.batchEngine = batchEngine;
+    this.transferFacade = transferFacade;
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<BatchJobState>> startJob(@RequestBody @Valid BatchJobRequest request) {
+    log.info("Starting end of day job {}", request);
+    return this.transferFacade.submit(() -> new ResponseEntity<>(this.batchEngine.startJob(request), HttpStatus.ACCEPTED));
+  }
+
+  @GetMapping(path = "/{jobId}")
+  public Mono<BatchJobState> getJob(@PathVariable("jobId") String jobId) {
+    return this.transferFacade.submit(() -> this.batchEngine.getJob(jobId));
+  }
+
+  @PostMapping(path = "/{jobId}/pause")
+  public Mono<BatchJobState> pauseJob(@PathVariable("jobId") String jobId) {
+    return this.transferFacade.submit(() -> this.batchEngine.pauseJob(jobId));
+  }
+
+  @PostMapping(path = "/{jobId}/resume")
+  public Mono<BatchJobState> resumeJob(@PathVariable("jobId") String jobId) {
+    return this.transferFacade.submit(() -> this.batchEngine.resumeJob(jobId));
+  }
+
+  @PostMapping(path = "/{jobId}/cancel")
+  public Mono<BatchJobState> cancelJob(@PathVariable("jobId") String jobId) {
+    return this.transferFacade.submit(() -> this.batchEngine.cancelJob(jobId));
+  }
+
+  @ExceptionHandler(BatchJobNotFoundException.class)
+  public ResponseEntity<Object> handleJobNotFound(BatchJobNotFoundException exception) {
+    return new ResponseEntity<>(exception.getMessage(), HttpStatus.NOT_FOUND);
+  }
+
+  @ExceptionHandler(TransfersOverloadedException.class)
+  public ResponseEntity<Object> handleTransfersOverloaded(TransfersOverloadedException overloadedException) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(overloadedException.getMessage());
+  }
+
+  @ExceptionHandler(ReadOnlyReplicaException.class)
+  public ResponseEntity<Object> handleReadOnlyReplicaException(ReadOnlyReplicaException readOnlyException) {
+    return new ResponseEntity<>(readOnlyException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+}
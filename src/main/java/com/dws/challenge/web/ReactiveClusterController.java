@@ -0,0 +1,117 @@
+package com.dws.challenge.web;
+
+import com.dws.challenge.cluster.ClusterClient;
+import com.dws.challenge.cluster.ClusterRouter;
+import com.dws.challenge.cluster.ClusterTransferCommand;
+import com.dws.challenge.cluster.ClusterTransferParticipant;
+import com.dws.challenge.cluster.ClusterTransferService;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.reactive.ReactiveTransferFacade;
+import com.dws.challenge.util.Constants;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive deployment of ClusterController, same endpoints and shared secret check
+ * Prepare, commit and abort wait on account monitors, so they run on the bounded executor of ReactiveTransferFacade
+ */
+@RestController
+@RequestMapping("/v1/internal/cluster")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveClusterController {
+
+  private final ClusterTransferParticipant participant;
+
+  private final ClusterTransferService clusterTransferService;
+
+  private final ClusterRouter clusterRouter;
+
+  private final ReactiveTransferFacade transferFacade;
+
+  @Autowired
+  public ReactiveClusterController(ClusterTransferParticipant participant, ClusterTransferService clusterTransferService,
+      ClusterRouter clusterRouter, ReactiveTransferFacade transferFacade) {
+    this.participant = participant;
+    this.clusterTransferService = clusterTransferService;
+    this.clusterRouter = clusterRouter;
+    this.transferFacade = transferFacade;
+  }
+
+  @PostMapping(path = "/prepare", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> prepare(@RequestBody ClusterTransferCommand command,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return Mono.just(rejectCaller("prepare"));
+    }
+    return this.transferFacade.submit(() -> {
+      try {
+        this.participant.prepare(command);
+      } catch (TranserMoneyValidationException validationException) {
+        log.error("Rejected prepare of cluster transfer {} {}", command.getTransferId(), validationException.getMessage());
+        return new ResponseEntity<>(validationException.getMessage(), HttpStatus.BAD_REQUEST);
+      }
+      return new ResponseEntity<>(HttpStatus.OK);
+    });
+  }
+
+  @PostMapping(path = "/commit/{transferId}")
+  public Mono<ResponseEntity<Object>> commit(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return Mono.just(rejectCaller("commit"));
+    }
+    return this.transferFacade.submit(() -> {
+      this.participant.commit(transferId);
+      return new ResponseEntity<>(HttpStatus.OK);
+    });
+  }
+
+  @PostMapping(path = "/abort/{transferId}")
+  public Mono<ResponseEntity<Object>> abort(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return Mono.just(rejectCaller("abort"));
+    }
+    return this.transferFacade.submit(() -> {
+      this.participant.abort(transferId);
+      return new ResponseEntity<>(HttpStatus.OK);
+    });
+  }
+
+  // outcome is resolved under the monitor of the coordinated transfer, which is held while its decision is forced to disk
+  @PostMapping(path = "/outcome/{transferId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> outcome(@PathVariable("transferId") String transferId,
+      @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret) {
+    if (!this.clusterRouter.isClusterNode(secret)) {
+      return Mono.just(rejectCaller("outcome"));
+    }
+    return this.transferFacade.submit(() -> new ResponseEntity<>(this.clusterTransferService.resolveOutcome(transferId), HttpStatus.OK));
+  }
+
+  @ExceptionHandler(TransfersOverloadedException.class)
+  public ResponseEntity<Object> handleTransfersOverloaded(TransfersOverloadedException overloadedException) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(overloadedException.getMessage());
+  }
+
+  private ResponseEntity<Object> rejectCaller(String operation) {
+    log.warn("Rejected {} call of a caller which is not a node of this cluster", operation);
+    return new ResponseEntity<>(Constants.UNKNOWN_CLUSTER_NODE_ERROR_MESSAGE, HttpStatus.FORBIDDEN);
+  }
+}
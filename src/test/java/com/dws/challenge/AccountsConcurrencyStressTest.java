@@ -0,0 +1,192 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.DuplicateAccountIdException;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.service.AccountsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/*
+ * jcstress style races : two actors are released together by a barrier many times,
+ * every observed outcome is counted and only outcomes allowed by the money transfer rules are accepted.
+ */
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "logging.level.com.dws.challenge.service=WARN", "logging.level.com.dws.challenge.web=WARN" })
+class AccountsConcurrencyStressTest {
+
+  private static final int ITERATIONS = 2_000;
+
+  private static final AtomicLong idSequence = new AtomicLong();
+
+  @Autowired
+  private AccountsService accountsService;
+
+  private ExecutorService actors;
+
+  @BeforeEach
+  void startActors() {
+    actors = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterEach
+  void stopActors() {
+    actors.shutdownNow();
+  }
+
+  @Test
+  void oppositeTransfersConserveMoney() throws Exception {
+    Map<String, Integer> outcomes = race(() -> {
+      Account a = newAccount("100");
+      Account b = newAccount("100");
+      return new Object[] { a, b, new TransferRequest(a.getAccountId(), b.getAccountId(), new BigDecimal("30")),
+        new TransferRequest(b.getAccountId(), a.getAccountId(), new BigDecimal("50")) };
+    }, state -> this.accountsService.transferMoney((TransferRequest) state[2]),
+      state -> this.accountsService.transferMoney((TransferRequest) state[3]),
+      state -> balance(state[0]) + "," + balance(state[1]));
+
+    assertThat(outcomes).containsOnlyKeys("120,80");
+  }
+
+  @Test
+  void competingDebitsNeverOverdraw() throws Exception {
+    Map<String, Integer> outcomes = race(() -> {
+      Account a = newAccount("100");
+      Account b = newAccount("0");
+      Account c = newAccount("0");
+      return new Object[] { a, b, c };
+    }, state -> transferIgnoringRejection((Account) state[0], (Account) state[1], "60"),
+      state -> transferIgnoringRejection((Account) state[0], (Account) state[2], "60"),
+      state -> balance(state[0]) + "," + balance(state[1]) + "," + balance(state[2]));
+
+    assertThat(outcomes.keySet()).isSubsetOf("40,60,0", "40,0,60");
+  }
+
+  @Test
+  void chainedTransfersThroughSharedAccountConserveMoney() throws Exception {
+    Map<String, Integer> outcomes = race(() -> {
+      Account a = newAccount("100");
+      Account b = newAccount("0");
+      Account c = newAccount("0");
+      return new Object[] { a, b, c };
+    }, state -> this.accountsService.transferMoney(new TransferRequest(((Account) state[0]).getAccountId(), ((Account) state[1]).getAccountId(), new BigDecimal("70"))),
+      state -> transferIgnoringRejection((Account) state[1], (Account) state[2], "50"),
+      state -> balance(state[0]) + "," + balance(state[1]) + "," + balance(state[2]));
+
+    // second transfer either sees the credit of the first one or is rejected, money is never lost or created
+    assertThat(outcomes.keySet()).isSubsetOf("30,70,0", "30,20,50");
+  }
+
+  @Test
+  void concurrentCreateOfSameIdHasSingleWinner() throws Exception {
+    Map<String, Integer> outcomes = race(() -> {
+      String accountId = "Id-stress-" + idSequence.incrementAndGet();
+      return new Object[] { new Account(accountId, new BigDecimal("1")), new Account(accountId, new BigDecimal("2")), null, null };
+    }, state -> state[2] = createIgnoringDuplicate((Account) state[0]),
+      state -> state[3] = createIgnoringDuplicate((Account) state[1]),
+      state -> {
+        Account stored = this.accountsService.getAccount(((Account) state[0]).getAccountId());
+        Account winner = Boolean.TRUE.equals(state[2]) ? (Account) state[0] : (Account) state[1];
+        return state[2] + "," + state[3] + "," + (stored == winner);
+      });
+
+    assertThat(outcomes.keySet()).isSubsetOf("true,false,true", "false,true,true");
+  }
+
+  @Test
+  void concurrentCreateAndGetSeesNothingOrWholeAccount() throws Exception {
+    Map<String, Integer> outcomes = race(() -> {
+      String accountId = "Id-stress-" + idSequence.incrementAndGet();
+      return new Object[] { new Account(accountId, new BigDecimal("100")), null };
+    }, state -> this.accountsService.createAccount((Account) state[0]),
+      state -> state[1] = this.accountsService.getAccount(((Account) state[0]).getAccountId()),
+      state -> state[1] == null ? "absent" : balance(state[1]));
+
+    assertThat(outcomes.keySet()).isSubsetOf("absent", "100");
+  }
+
+  private Account newAccount(String balance) {
+    Account account = new Account("Id-stress-" + idSequence.incrementAndGet(), new BigDecimal(balance));
+    this.accountsService.createAccount(account);
+    return account;
+  }
+
+  private void transferIgnoringRejection(Account from, Account to, String amount) throws Exception {
+    try {
+      this.accountsService.transferMoney(new TransferRequest(from.getAccountId(), to.getAccountId(), new BigDecimal(amount)));
+    } catch (TranserMoneyValidationException ex) {
+      // insufficient balance is an allowed outcome
+    }
+  }
+
+  private Boolean createIgnoringDuplicate(Account account) {
+    try {
+      this.accountsService.createAccount(account);
+      return true;
+    } catch (DuplicateAccountIdException ex) {
+      return false;
+    }
+  }
+
+  private static String balance(Object account) {
+    return ((Account) account).getBalance().stripTrailingZeros().toPlainString();
+  }
+
+  /*
+   * Runs both actors against fresh state for every iteration and counts outcomes computed once both finished
+   */
+  private Map<String, Integer> race(Callable<Object[]> setup, Actor actor1, Actor actor2, Arbiter arbiter) throws Exception {
+    Map<String, Integer> outcomes = new TreeMap<>();
+    for (int i = 0; i < ITERATIONS; i++) {
+      Object[] state = setup.call();
+      CyclicBarrier start = new CyclicBarrier(2);
+      Future<?> first = actors.submit(() -> {
+        start.await();
+        actor1.act(state);
+        return null;
+      });
+      Future<?> second = actors.submit(() -> {
+        start.await();
+        actor2.act(state);
+        return null;
+      });
+      first.get();
+      second.get();
+      outcomes.merge(arbiter.outcome(state), 1, Integer::sum);
+    }
+    log.info("Observed outcomes {}", outcomes);
+    return outcomes;
+  }
+
+  @FunctionalInterface
+  private interface Actor {
+    void act(Object[] state) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface Arbiter {
+    String outcome(Object[] state);
+  }
+}
@@ -1,9 +1,12 @@
 package com.dws.challenge;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
 
@@ -106,6 +109,54 @@ class AccountsControllerTest {
         content().string("{\"accountId\":\"" + uniqueAccountId + "\",\"balance\":123.45}"));
   }
   
+  @Test
+  void getAccountNotModified() throws Exception {
+    String uniqueAccountId = "Id-" + System.currentTimeMillis() + "-etag";
+    this.accountsService.createAccount(new Account(uniqueAccountId, new BigDecimal("100")));
+
+    String eTag = this.mockMvc.perform(get("/v1/accounts/" + uniqueAccountId))
+      .andExpect(status().isOk())
+      .andExpect(header().exists("ETag"))
+      .andReturn().getResponse().getHeader("ETag");
+
+    this.mockMvc.perform(get("/v1/accounts/" + uniqueAccountId).header("If-None-Match", eTag))
+      .andExpect(status().isNotModified())
+      .andExpect(header().string("ETag", eTag))
+      .andExpect(content().string(""));
+  }
+
+  @Test
+  void getAccountModifiedAfterRecreation() throws Exception {
+    String uniqueAccountId = "Id-" + System.currentTimeMillis() + "-etag-recreated";
+    this.accountsService.createAccount(new Account(uniqueAccountId, new BigDecimal("100")));
+    String eTag = this.mockMvc.perform(get("/v1/accounts/" + uniqueAccountId))
+      .andReturn().getResponse().getHeader("ETag");
+
+    // a new instance starts again at version 0, as after a restart or a failover
+    this.accountsService.getAccountsRepository().clearAccounts();
+    this.accountsService.createAccount(new Account(uniqueAccountId, new BigDecimal("200")));
+
+    this.mockMvc.perform(get("/v1/accounts/" + uniqueAccountId).header("If-None-Match", eTag))
+      .andExpect(status().isOk())
+      .andExpect(content().string("{\"accountId\":\"" + uniqueAccountId + "\",\"balance\":200}"));
+  }
+
+  @Test
+  void getAccountModifiedAfterTransfer() throws Exception {
+    String uniqueFromAccountId = "Id-" + System.currentTimeMillis() + "-etag-1";
+    String uniqueToAccountId = "Id-" + System.currentTimeMillis() + "-etag-2";
+    this.accountsService.createAccount(new Account(uniqueFromAccountId, new BigDecimal("100")));
+    this.accountsService.createAccount(new Account(uniqueToAccountId, new BigDecimal("100")));
+
+    String eTag = this.mockMvc.perform(get("/v1/accounts/" + uniqueFromAccountId))
+      .andReturn().getResponse().getHeader("ETag");
+    this.accountsService.transferMoney(new TransferRequest(uniqueFromAccountId, uniqueToAccountId, new BigDecimal("30")));
+
+    this.mockMvc.perform(get("/v1/accounts/" + uniqueFromAccountId).header("If-None-Match", eTag))
+      .andExpect(status().isOk())
+      .andExpect(content().string("{\"accountId\":\"" + uniqueFromAccountId + "\",\"balance\":70}"));
+  }
+  
   @Test
   void transferMoney() throws Exception {
 	  	String uniqueFromAccountId = "Id-" + System.currentTimeMillis()+"-"+"1";
@@ -258,9 +309,101 @@ class AccountsControllerTest {
   }
   
   @Test
-  void transferMoneyNoBody() throws Exception {
-    this.mockMvc.perform(post("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+  void transferMoneyScheduled() throws Exception {
+	  	String uniqueFromAccountId = "Id-" + System.currentTimeMillis()+"-"+"14";
+	    Account fromAccountInp = new Account(uniqueFromAccountId, new BigDecimal("100"));
+	    String uniqueToAccountId = "Id-" + System.currentTimeMillis()+"-"+"15";
+	    Account toAccountInp = new Account(uniqueToAccountId, new BigDecimal("100"));
+	    this.accountsService.createAccount(fromAccountInp);
+	    this.accountsService.createAccount(toAccountInp);
+	    TransferRequest transferRequestObj=new TransferRequest(uniqueFromAccountId,uniqueToAccountId,new BigDecimal("50"),System.currentTimeMillis()+300);
+	    ObjectMapper mapper = new ObjectMapper();  
+	    String tranferObjJsonStr=mapper.writeValueAsString(transferRequestObj);
+	    
+    this.mockMvc.perform(post("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+      .content(tranferObjJsonStr)).andExpect(status().isAccepted());
+    	assertThat(accountsService.getAccount(uniqueFromAccountId).getBalance()).isEqualByComparingTo("100");
+    	
+    	long waitUntil=System.currentTimeMillis()+5000;
+    	while(accountsService.getAccount(uniqueToAccountId).getBalance().compareTo(new BigDecimal("150"))!=0 && System.currentTimeMillis()<waitUntil)
+    		Thread.sleep(20);
+    	assertThat(accountsService.getAccount(uniqueFromAccountId).getBalance()).isEqualByComparingTo("50");
+    	assertThat(accountsService.getAccount(uniqueToAccountId).getBalance()).isEqualByComparingTo("150");
   }
   
+  @Test
+  void transferMoneyScheduledInvalidAccount() throws Exception {
+	  	String uniqueFromAccountId = "Id-" + System.currentTimeMillis()+"-"+"16";
+	    Account fromAccountInp = new Account(uniqueFromAccountId, new BigDecimal("100"));
+	    this.accountsService.createAccount(fromAccountInp);
+	    TransferRequest transferRequestObj=new TransferRequest(uniqueFromAccountId,"00000",new BigDecimal("50"),System.currentTimeMillis()+60000);
+	    ObjectMapper mapper = new ObjectMapper();  
+	    String tranferObjJsonStr=mapper.writeValueAsString(transferRequestObj);
+	    
+    this.mockMvc.perform(post("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+      .content(tranferObjJsonStr)).andExpect(status().isBadRequest());
+  }
   
+  @Test
+  void transferMoneyNoBody() throws Exception {
+    this.mockMvc.perform(post("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void listAccountsPaged() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      this.accountsService.createAccount(new Account("Id-list-" + i, new BigDecimal("10")));
+    }
+
+    this.mockMvc.perform(get("/v1/accounts?limit=2"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts[*].accountId").value(contains("Id-list-0", "Id-list-1")))
+      .andExpect(jsonPath("$.nextCursor").value("Id-list-1"));
+    this.mockMvc.perform(get("/v1/accounts?after=Id-list-1&limit=2"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts[*].accountId").value(contains("Id-list-2", "Id-list-3")));
+    this.mockMvc.perform(get("/v1/accounts?after=Id-list-3&limit=2"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts[*].accountId").value(contains("Id-list-4")))
+      .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  void listAccountsByPrefixAndRange() throws Exception {
+    this.accountsService.createAccount(new Account("BR01-1", new BigDecimal("10")));
+    this.accountsService.createAccount(new Account("BR01-2", new BigDecimal("10")));
+    this.accountsService.createAccount(new Account("BR02-1", new BigDecimal("10")));
+    this.accountsService.createAccount(new Account("BR03-1", new BigDecimal("10")));
+
+    this.mockMvc.perform(get("/v1/accounts?prefix=BR01"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts[*].accountId").value(contains("BR01-1", "BR01-2")));
+    this.mockMvc.perform(get("/v1/accounts?after=BR01-2&before=BR03"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts[*].accountId").value(contains("BR02-1")));
+  }
+
+  @Test
+  void listAccountsInvertedRangeIsEmpty() throws Exception {
+    this.accountsService.createAccount(new Account("a-1", new BigDecimal("10")));
+    this.accountsService.createAccount(new Account("m-1", new BigDecimal("10")));
+
+    this.mockMvc.perform(get("/v1/accounts?after=b&before=a"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts").isEmpty())
+      .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    this.mockMvc.perform(get("/v1/accounts?prefix=m&before=c"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts").isEmpty());
+    this.mockMvc.perform(get("/v1/accounts?after=m-1&before=m-1"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.accounts").isEmpty());
+  }
+
+  @Test
+  void listAccountsInvalidLimit() throws Exception {
+    this.mockMvc.perform(get("/v1/accounts?limit=0")).andExpect(status().isBadRequest());
+    this.mockMvc.perform(get("/v1/accounts?limit=100000")).andExpect(status().isBadRequest());
+  }
+
 }
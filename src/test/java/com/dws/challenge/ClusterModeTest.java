@@ -0,0 +1,252 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dws.challenge.cluster.ClusterClient;
+import com.dws.challenge.cluster.ClusterCommit;
+import com.dws.challenge.cluster.ClusterDecisionLog;
+import com.dws.challenge.cluster.ClusterRouter;
+import com.dws.challenge.cluster.ConsistentHashRing;
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.service.AccountsService;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+ * Starts two nodes of the cluster on localhost and talks to them over HTTP
+ */
+class ClusterModeTest {
+
+  private static ConfigurableApplicationContext nodeA;
+
+  private static ConfigurableApplicationContext nodeB;
+
+  private static String nodeAUrl;
+
+  private static String nodeBUrl;
+
+  private static final String SHARED_SECRET = "cluster-test-secret";
+
+  private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @BeforeAll
+  static void startNodes() throws IOException {
+    int portA = freePort();
+    int portB = freePort();
+    nodeAUrl = "http://localhost:" + portA;
+    nodeBUrl = "http://localhost:" + portB;
+    nodeA = startNode(portA, nodeAUrl);
+    nodeB = startNode(portB, nodeBUrl);
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    nodeA.close();
+    nodeB.close();
+  }
+
+  @Test
+  void ringSpreadsAccountsAcrossNodes() {
+    ConsistentHashRing ring = new ConsistentHashRing(List.of("n1", "n2", "n3"), 128);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 30_000; i++) {
+      counts.merge(ring.nodeFor("Id-" + i), 1, Integer::sum);
+    }
+    assertThat(counts).hasSize(3);
+    assertThat(counts.values()).allMatch(count -> count > 7_000 && count < 13_000);
+  }
+
+  @Test
+  void createAndGetAccountAreForwardedToOwner() throws Exception {
+    String accountId = accountOwnedBy(nodeBUrl, "fwd");
+
+    assertThat(post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + accountId + "\",\"balance\":1000}").statusCode()).isEqualTo(201);
+
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(accountId)).isNull();
+    assertThat(nodeB.getBean(AccountsService.class).getAccount(accountId).getBalance()).isEqualByComparingTo("1000");
+    assertThat(get(nodeAUrl, "/v1/accounts/" + accountId).body()).contains("\"balance\":1000");
+  }
+
+  @Test
+  void forwardedHeaderWithoutSecretIsIgnored() throws Exception {
+    String accountId = accountOwnedBy(nodeBUrl, "forged");
+
+    HttpRequest request = HttpRequest.newBuilder(URI.create(nodeAUrl + "/v1/accounts"))
+      .header("Content-Type", "application/json")
+      .header(ClusterClient.FORWARDED_HEADER, nodeBUrl)
+      .POST(HttpRequest.BodyPublishers.ofString("{\"accountId\":\"" + accountId + "\",\"balance\":5}"))
+      .build();
+    assertThat(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(201);
+
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(accountId)).isNull();
+    assertThat(nodeB.getBean(AccountsService.class).getAccount(accountId).getBalance()).isEqualByComparingTo("5");
+  }
+
+  @Test
+  void accountIdsNeedingEncodingAreForwarded() throws Exception {
+    String accountId = accountOwnedBy(nodeBUrl, "with space %");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + accountId + "\",\"balance\":7}");
+
+    HttpResponse<String> response = get(nodeAUrl, ClusterClient.accountPath(accountId));
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).contains("\"balance\":7");
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(accountId)).isNull();
+  }
+
+  @Test
+  void crossNodeTransfer() throws Exception {
+    String fromAccountId = accountOwnedBy(nodeAUrl, "from");
+    String toAccountId = accountOwnedBy(nodeBUrl, "to");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + fromAccountId + "\",\"balance\":100}");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + toAccountId + "\",\"balance\":100}");
+
+    HttpResponse<String> response = post(nodeBUrl, "/v1/accounts/transfer",
+      "{\"fromAccountId\":\"" + fromAccountId + "\",\"toAccountId\":\"" + toAccountId + "\",\"amount\":40}");
+
+    assertThat(response.statusCode()).isEqualTo(201);
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(fromAccountId).getBalance()).isEqualByComparingTo("60");
+    assertThat(nodeB.getBean(AccountsService.class).getAccount(toAccountId).getBalance()).isEqualByComparingTo("140");
+  }
+
+  @Test
+  void crossNodeTransferInsufficientBalanceKeepsBalances() throws Exception {
+    String fromAccountId = accountOwnedBy(nodeAUrl, "poor");
+    String toAccountId = accountOwnedBy(nodeBUrl, "rich");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + fromAccountId + "\",\"balance\":10}");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + toAccountId + "\",\"balance\":10}");
+
+    HttpResponse<String> response = post(nodeAUrl, "/v1/accounts/transfer",
+      "{\"fromAccountId\":\"" + fromAccountId + "\",\"toAccountId\":\"" + toAccountId + "\",\"amount\":40}");
+
+    assertThat(response.statusCode()).isEqualTo(400);
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(fromAccountId).getBalance()).isEqualByComparingTo("10");
+    assertThat(nodeB.getBean(AccountsService.class).getAccount(toAccountId).getBalance()).isEqualByComparingTo("10");
+  }
+
+  @Test
+  void crossNodeTransferToUnknownAccountReleasesReservation() throws Exception {
+    String fromAccountId = accountOwnedBy(nodeAUrl, "orphan");
+    String toAccountId = accountOwnedBy(nodeBUrl, "missing");
+    post(nodeAUrl, "/v1/accounts", "{\"accountId\":\"" + fromAccountId + "\",\"balance\":100}");
+
+    HttpResponse<String> response = post(nodeAUrl, "/v1/accounts/transfer",
+      "{\"fromAccountId\":\"" + fromAccountId + "\",\"toAccountId\":\"" + toAccountId + "\",\"amount\":40}");
+
+    assertThat(response.statusCode()).isEqualTo(400);
+    assertThat(nodeA.getBean(AccountsService.class).getAccount(fromAccountId).getBalance()).isEqualByComparingTo("100");
+  }
+
+  @Test
+  void internalEndpointsRejectCallersWithoutSecret() throws Exception {
+    assertThat(post(nodeAUrl, "/v1/internal/cluster/abort/unknown-D", "").statusCode()).isEqualTo(403);
+    assertThat(postInternal(nodeAUrl, "/v1/internal/cluster/abort/unknown-D", "", "wrong-secret").statusCode()).isEqualTo(403);
+    assertThat(postInternal(nodeAUrl, "/v1/internal/cluster/abort/unknown-D", "", SHARED_SECRET).statusCode()).isEqualTo(200);
+  }
+
+  @Test
+  void expiredPrepareOfUndecidedTransferReleasesReservation() throws Exception {
+    String accountId = accountOwnedBy(nodeBUrl, "stuck");
+    post(nodeBUrl, "/v1/accounts", "{\"accountId\":\"" + accountId + "\",\"balance\":100}");
+
+    // prepare as sent by a coordinator (node A) which then never decides the transfer
+    HttpResponse<String> response = postInternal(nodeBUrl, "/v1/internal/cluster/prepare",
+      "{\"transferId\":\"stuck-" + System.nanoTime() + "-D\",\"accountId\":\"" + accountId
+        + "\",\"amount\":40,\"direction\":\"DEBIT\",\"coordinatorUrl\":\"" + nodeAUrl + "\"}", SHARED_SECRET);
+    assertThat(response.statusCode()).isEqualTo(200);
+    Account account = nodeB.getBean(AccountsService.class).getAccount(accountId);
+    assertThat(account.getBalance()).isEqualByComparingTo("60");
+
+    for (int i = 0; i < 200 && account.getBalance().compareTo(new BigDecimal("100")) != 0; i++) {
+      Thread.sleep(20);
+    }
+    assertThat(account.getBalance()).isEqualByComparingTo("100");
+  }
+
+  @Test
+  void undeliveredCommitsAreReplayedFromDecisionLog(@TempDir Path tempDir) throws Exception {
+    String logPath = tempDir.resolve("decisions.log").toString();
+    ClusterDecisionLog decisionLog = new ClusterDecisionLog(logPath);
+    assertThat(decisionLog.open()).isEmpty();
+    decisionLog.appendDecision(List.of(new ClusterCommit(nodeAUrl, "t1-D"), new ClusterCommit(nodeBUrl, "t1-C")));
+    decisionLog.appendDecision(List.of(new ClusterCommit(nodeAUrl, "t2-D"), new ClusterCommit(nodeBUrl, "t2-C")));
+    decisionLog.appendDelivered("t1-D");
+    decisionLog.appendDelivered("t1-C");
+    decisionLog.appendDelivered("t2-D");
+    decisionLog.close();
+
+    decisionLog = new ClusterDecisionLog(logPath);
+    List<ClusterCommit> undelivered = decisionLog.open();
+    decisionLog.close();
+
+    assertThat(undelivered).extracting(ClusterCommit::getTransferId).containsExactly("t2-C");
+    assertThat(undelivered.get(0).getNode()).isEqualTo(nodeBUrl);
+  }
+
+  private static ConfigurableApplicationContext startNode(int port, String selfUrl) {
+    return new SpringApplicationBuilder(ChallengeApplication.class)
+      .properties("server.port=" + port,
+        "cluster.enabled=true",
+        "cluster.self-url=" + selfUrl,
+        "cluster.node-urls=" + nodeAUrl + "," + nodeBUrl,
+        "cluster.shared-secret=" + SHARED_SECRET,
+        "cluster.prepare-timeout-millis=500",
+        "cluster.decision-log-path=build/cluster-test/node-" + port + ".decisions",
+        "scheduler.journal-path=")
+      .run();
+  }
+
+  private static String accountOwnedBy(String nodeUrl, String prefix) {
+    ClusterRouter router = nodeA.getBean(ClusterRouter.class);
+    for (int i = 0; ; i++) {
+      String accountId = prefix + "-" + System.nanoTime() + "-" + i;
+      if (router.ownerOf(accountId).equals(nodeUrl)) {
+        return accountId;
+      }
+    }
+  }
+
+  private static HttpResponse<String> post(String nodeUrl, String path, String body) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(nodeUrl + path))
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(body))
+      .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpResponse<String> postInternal(String nodeUrl, String path, String body, String secret) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(nodeUrl + path))
+      .header("Content-Type", "application/json")
+      .header(ClusterClient.SECRET_HEADER, secret)
+      .POST(HttpRequest.BodyPublishers.ofString(body))
+      .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpResponse<String> get(String nodeUrl, String path) throws Exception {
+    return httpClient.send(HttpRequest.newBuilder(URI.create(nodeUrl + path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.dws.challenge.batch.BatchJobRequest;
+import com.dws.challenge.batch.BatchJobState;
+import com.dws.challenge.batch.BatchJobStatus;
+import com.dws.challenge.batch.BatchOperationType;
+import com.dws.challenge.batch.EndOfDayBatchEngine;
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.BatchJobNotFoundException;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "batch.checkpoint-dir=build/batch-test", "batch.partitions=16", "batch.parallelism=4",
+  "logging.level.com.dws.challenge.service=WARN" })
+class EndOfDayBatchEngineTest {
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Autowired
+  private EndOfDayBatchEngine batchEngine;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @MockBean
+  private NotificationService notificationService;
+
+  @BeforeEach
+  void prepareAccounts() {
+    accountsService.getAccountsRepository().clearAccounts();
+  }
+
+  @Test
+  void interestIsAccruedOnEveryAccount() throws Exception {
+    List<Account> accounts = createAccounts(1_000, "100");
+
+    BatchJobState state = awaitEnd(batchEngine.startJob(new BatchJobRequest(BatchOperationType.INTEREST_ACCRUAL, new BigDecimal("0.015"))).getJobId());
+
+    assertThat(state.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+    assertThat(state.getProcessedAccounts()).isEqualTo(1_000);
+    for (Account account : accounts) {
+      // 1.5 is rounded half even to cents
+      assertThat(account.getBalance()).isEqualByComparingTo("101.50");
+    }
+  }
+
+  @Test
+  void feeNeverMakesBalanceNegative() throws Exception {
+    Account poor = createAccounts(1, "3").get(0);
+    Account rich = new Account("Id-batch-rich", new BigDecimal("30"));
+    accountsService.createAccount(rich);
+
+    awaitEnd(batchEngine.startJob(new BatchJobRequest(BatchOperationType.MAINTENANCE_FEE, new BigDecimal("5"))).getJobId());
+
+    assertThat(poor.getBalance()).isEqualByComparingTo("0");
+    assertThat(rich.getBalance()).isEqualByComparingTo("25");
+  }
+
+  @Test
+  void pausedJobResumesWithoutApplyingTwice() throws Exception {
+    List<Account> accounts = createAccounts(20_000, "1000");
+
+    String jobId = startAndPause(new BatchJobRequest(BatchOperationType.MAINTENANCE_FEE, BigDecimal.ONE));
+    BatchJobState paused = awaitEnd(jobId);
+    assertThat(paused.getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+    assertThat(paused.getProcessedAccounts()).isGreaterThan(0).isLessThan(20_000);
+
+    batchEngine.resumeJob(jobId);
+    BatchJobState completed = awaitEnd(jobId);
+    assertThat(completed.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+    assertThat(completed.getProcessedAccounts()).isEqualTo(20_000);
+    for (Account account : accounts) {
+      assertThat(account.getBalance()).isEqualByComparingTo("999");
+    }
+  }
+
+  @Test
+  void freshEngineResumesFromStaleCheckpointWithoutApplyingTwice() throws Exception {
+    List<Account> accounts = createAccounts(20_000, "1000");
+    String jobId = startAndPause(new BatchJobRequest(BatchOperationType.MAINTENANCE_FEE, BigDecimal.ONE));
+    assertThat(awaitEnd(jobId).getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+
+    // checkpoint as left by a crash before any progress was checkpointed, while some accounts were already adjusted
+    File checkpointFile = new File("build/batch-test", jobId + ".json");
+    BatchJobState checkpoint = objectMapper.readValue(checkpointFile, BatchJobState.class);
+    int partitions = checkpoint.getCursors().size();
+    checkpoint.setStatus(BatchJobStatus.RUNNING);
+    checkpoint.setProcessedAccounts(0);
+    checkpoint.setCursors(new ArrayList<>(Collections.nCopies(partitions, (String) null)));
+    checkpoint.setCompletedPartitions(new ArrayList<>(Collections.nCopies(partitions, Boolean.FALSE)));
+    objectMapper.writeValue(checkpointFile, checkpoint);
+
+    EndOfDayBatchEngine restartedEngine = new EndOfDayBatchEngine(accountsService, objectMapper, 4, 16, 1_000, "build/batch-test", 86_400_000);
+    restartedEngine.start();
+    try {
+      assertThat(restartedEngine.getJob(jobId).getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+      restartedEngine.resumeJob(jobId);
+      BatchJobState completed = awaitEnd(restartedEngine, jobId);
+      assertThat(completed.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+      assertThat(completed.getProcessedAccounts()).isEqualTo(20_000);
+    } finally {
+      restartedEngine.stop();
+    }
+    for (Account account : accounts) {
+      assertThat(account.getBalance()).isEqualByComparingTo("999");
+    }
+  }
+
+  @Test
+  void cancelledJobClearsAppliedMarkersAndIsNotResumed() throws Exception {
+    List<Account> accounts = createAccounts(20_000, "1000");
+    String jobId = startAndPause(new BatchJobRequest(BatchOperationType.MAINTENANCE_FEE, BigDecimal.ONE));
+    assertThat(awaitEnd(jobId).getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+    assertThat(accounts).anyMatch(account -> account.isBatchJobApplied(jobId));
+    long adjusted = countBalances(accounts, "999");
+
+    assertThat(batchEngine.cancelJob(jobId).getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+    assertThat(accounts).noneMatch(account -> account.isBatchJobApplied(jobId));
+
+    assertThat(batchEngine.resumeJob(jobId).getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+    assertThat(countBalances(accounts, "999")).isEqualTo(adjusted);
+  }
+
+  @Test
+  void pausedJobWhichIsNotResumedIsAbandoned() throws Exception {
+    List<Account> accounts = createAccounts(20_000, "1000");
+    EndOfDayBatchEngine abandoningEngine = new EndOfDayBatchEngine(accountsService, objectMapper, 4, 16, 1_000, "build/batch-test", 200);
+    abandoningEngine.start();
+    try {
+      String jobId = startAndPause(abandoningEngine, new BatchJobRequest(BatchOperationType.MAINTENANCE_FEE, BigDecimal.ONE));
+      assertThat(awaitEnd(abandoningEngine, jobId).getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+
+      BatchJobState state = abandoningEngine.getJob(jobId);
+      for (int i = 0; i < 250 && state.getStatus() != BatchJobStatus.CANCELLED; i++) {
+        Thread.sleep(20);
+        state = abandoningEngine.getJob(jobId);
+      }
+      assertThat(state.getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+      assertThat(accounts).noneMatch(account -> account.isBatchJobApplied(jobId));
+    } finally {
+      abandoningEngine.stop();
+    }
+  }
+
+  @Test
+  void unknownJobIsRejected() {
+    assertThatThrownBy(() -> batchEngine.getJob("0000-unknown")).isInstanceOf(BatchJobNotFoundException.class);
+  }
+
+  private List<Account> createAccounts(int count, String balance) {
+    List<Account> accounts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Account account = new Account("Id-batch-" + i, new BigDecimal(balance));
+      accountsService.createAccount(account);
+      accounts.add(account);
+    }
+    return accounts;
+  }
+
+  private static long countBalances(List<Account> accounts, String balance) {
+    return accounts.stream().filter(account -> account.getBalance().compareTo(new BigDecimal(balance)) == 0).count();
+  }
+
+  private String startAndPause(BatchJobRequest request) throws InterruptedException {
+    return startAndPause(batchEngine, request);
+  }
+
+  // workers block on notification of their first adjusted account until pause is requested, so job always pauses midway
+  private String startAndPause(EndOfDayBatchEngine engine, BatchJobRequest request) throws InterruptedException {
+    CountDownLatch firstAdjusted = new CountDownLatch(1);
+    CountDownLatch pauseRequested = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      firstAdjusted.countDown();
+      pauseRequested.await(10, TimeUnit.SECONDS);
+      return null;
+    }).when(notificationService).notifyAboutTransfer(any(), anyString());
+
+    String jobId = engine.startJob(request).getJobId();
+    assertThat(firstAdjusted.await(10, TimeUnit.SECONDS)).isTrue();
+    engine.pauseJob(jobId);
+    pauseRequested.countDown();
+    return jobId;
+  }
+
+  private BatchJobState awaitEnd(String jobId) throws InterruptedException {
+    return awaitEnd(batchEngine, jobId);
+  }
+
+  private static BatchJobState awaitEnd(EndOfDayBatchEngine engine, String jobId) throws InterruptedException {
+    BatchJobState state = engine.getJob(jobId);
+    for (int i = 0; i < 1_000 && state.getStatus() == BatchJobStatus.RUNNING; i++) {
+      Thread.sleep(20);
+      state = engine.getJob(jobId);
+    }
+    return state;
+  }
+}
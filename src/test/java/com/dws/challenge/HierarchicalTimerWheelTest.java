@@ -0,0 +1,63 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.dws.challenge.scheduler.HierarchicalTimerWheel;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimerWheelTest {
+
+  @Test
+  void expiresTaskOnFirstTickAtOrAfterDeadline() {
+    HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(0, 10);
+    List<String> expired = new ArrayList<>();
+    wheel.schedule(25, "task");
+
+    wheel.advanceTo(29, expired::add);
+    assertThat(expired).isEmpty();
+
+    wheel.advanceTo(30, expired::add);
+    assertThat(expired).containsExactly("task");
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  void expiresPastDeadlineImmediately() {
+    HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(1000, 10);
+    List<String> expired = new ArrayList<>();
+    wheel.schedule(500, "task");
+
+    wheel.advanceTo(1000, expired::add);
+    assertThat(expired).containsExactly("task");
+  }
+
+  @Test
+  void cascadesTasksAcrossLevelsWithoutFiringEarly() {
+    HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(0, 1);
+    Random random = new Random(42);
+    Map<Long, Long> firedAt = new HashMap<>();
+    List<Long> deadlines = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      long deadline = 1 + (long) (random.nextDouble() * 20_000_000L);
+      deadlines.add(deadline);
+      wheel.schedule(deadline, deadline);
+    }
+
+    for (long now = 0; now <= 20_001_000L; now += 997) {
+      long tickTime = now;
+      wheel.advanceTo(now, deadline -> firedAt.merge(deadline, tickTime, Math::max));
+    }
+
+    assertThat(wheel.size()).isZero();
+    for (Long deadline : deadlines) {
+      assertThat(firedAt.get(deadline)).isGreaterThanOrEqualTo(deadline).isLessThan(deadline + 997);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import com.dws.challenge.hotaccounts.CountMinSketch;
+import com.dws.challenge.hotaccounts.HeavyHitters;
+import com.dws.challenge.hotaccounts.HotAccountTracker;
+
+import org.junit.jupiter.api.Test;
+
+class HotAccountTrackerTest {
+
+  @Test
+  void sketchNeverUnderestimatesAndDecays() {
+    CountMinSketch sketch = new CountMinSketch(4, 8192);
+    for (int i = 0; i < 10_000; i++) {
+      sketch.add("Id-" + (i % 500), 1);
+    }
+    for (int i = 0; i < 500; i++) {
+      assertThat(sketch.estimate("Id-" + i)).isGreaterThanOrEqualTo(20);
+    }
+
+    sketch.decay();
+    assertThat(sketch.estimate("Id-1")).isGreaterThanOrEqualTo(10).isLessThan(20);
+  }
+
+  @Test
+  void idsWithEqualHashCodeDoNotShareWeight() {
+    // all four ids have the same String.hashCode
+    List<String> collidingIds = List.of("AaAa", "AaBB", "BBAa", "BBBB");
+    for (long seed = 0; seed < 20; seed++) {
+      CountMinSketch sketch = new CountMinSketch(4, 8192, seed);
+      sketch.add("AaAa", 1_000);
+      for (String id : collidingIds.subList(1, collidingIds.size())) {
+        assertThat(sketch.estimate(id)).isZero();
+      }
+    }
+  }
+
+  @Test
+  void trackerReportsHotAccountsFirst() {
+    HotAccountTracker tracker = new HotAccountTracker(true, 3, 4, 1024, 10_000);
+    for (int i = 0; i < 5_000; i++) {
+      tracker.record("Id-" + i, 10);
+      tracker.record("Id-hot", 1_000);
+      if (i % 2 == 0) {
+        tracker.record("Id-warm", 0);
+      }
+    }
+    tracker.decay();
+
+    List<HeavyHitters.Entry> byRequests = tracker.topByRequests();
+    assertThat(byRequests).hasSize(3);
+    assertThat(byRequests.get(0).getKey()).isEqualTo("Id-hot");
+    assertThat(byRequests.get(1).getKey()).isEqualTo("Id-warm");
+    assertThat(tracker.topByLockWaitNanos().get(0).getKey()).isEqualTo("Id-hot");
+  }
+
+  @Test
+  void recordsBufferedByThreadsAreMergedExactly() throws InterruptedException {
+    HotAccountTracker tracker = new HotAccountTracker(true, 3, 4, 1024, 10_000);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          tracker.record("Id-hot", 5);
+        }
+        tracker.flush();
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(tracker.topByRequests().get(0).getKey()).isEqualTo("Id-hot");
+    assertThat(tracker.topByRequests().get(0).getWeight()).isEqualTo(40_000);
+    assertThat(tracker.topByLockWaitNanos().get(0).getWeight()).isEqualTo(200_000);
+  }
+
+  @Test
+  void hotAccountFirstSeenAfterCandidatesFilledUpIsReported() {
+    HeavyHitters heavyHitters = new HeavyHitters(2, 4, 1024);
+    for (int i = 0; i < 100; i++) {
+      heavyHitters.add("Id-" + i, 1);
+    }
+    heavyHitters.add("Id-hot", 50);
+
+    assertThat(heavyHitters.top().get(0).getKey()).isEqualTo("Id-hot");
+  }
+}
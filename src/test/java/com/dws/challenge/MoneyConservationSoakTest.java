@@ -0,0 +1,122 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.service.AccountsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/*
+ * Long running randomized soak, excluded from the default test task, run it with
+ *   gradle soakTest -PsoakDurationSeconds=300
+ * Worker threads transfer random amounts between random accounts of a small pool (to force contention),
+ * an auditor keeps checking that no balance ever goes negative and the total is checked once workers stopped.
+ */
+@Slf4j
+@Tag("soak")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "logging.level.com.dws.challenge.service=WARN", "logging.level.com.dws.challenge.web=WARN" })
+class MoneyConservationSoakTest {
+
+  private static final int ACCOUNTS = 64;
+
+  private static final int INITIAL_BALANCE = 1_000;
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Test
+  void randomTransfersConserveMoney() throws Exception {
+    long durationSeconds = Long.getLong("soak.durationSeconds", 30);
+    int workers = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    String prefix = "Id-soak-" + System.currentTimeMillis() + "-";
+    List<Account> accounts = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      Account account = new Account(prefix + i, new BigDecimal(INITIAL_BALANCE));
+      this.accountsService.createAccount(account);
+      accounts.add(account);
+    }
+
+    LongAdder completed = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    AtomicLong negativeBalancesSeen = new AtomicLong();
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(workers + 1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int w = 0; w < workers; w++) {
+      futures.add(executor.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get()) {
+          int from = random.nextInt(ACCOUNTS);
+          int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+          BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+          try {
+            this.accountsService.transferMoney(new TransferRequest(prefix + from, prefix + to, amount));
+            completed.increment();
+          } catch (TranserMoneyValidationException ex) {
+            rejected.increment();
+          }
+        }
+        return null;
+      }));
+    }
+    futures.add(executor.submit(() -> {
+      while (running.get()) {
+        for (Account account : accounts) {
+          if (account.getBalance().signum() < 0) {
+            negativeBalancesSeen.incrementAndGet();
+          }
+        }
+      }
+      return null;
+    }));
+
+    long startedAt = System.nanoTime();
+    long lastCompleted = 0;
+    for (long second = 1; second <= durationSeconds; second++) {
+      TimeUnit.SECONDS.sleep(1);
+      long nowCompleted = completed.sum();
+      log.info("Soak {}s : {} transfers/s, {} completed, {} rejected", second, nowCompleted - lastCompleted, nowCompleted, rejected.sum());
+      lastCompleted = nowCompleted;
+    }
+    running.set(false);
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+    log.info("Soak finished : {} transfers in {}s with {} threads, average {} transfers/s",
+      completed.sum(), String.format("%.1f", elapsedSeconds), workers, String.format("%.0f", completed.sum() / elapsedSeconds));
+
+    BigDecimal total = BigDecimal.ZERO;
+    for (Account account : accounts) {
+      assertThat(account.getBalance().signum()).isGreaterThanOrEqualTo(0);
+      total = total.add(account.getBalance());
+    }
+    assertThat(negativeBalancesSeen.get()).isZero();
+    assertThat(total).isEqualByComparingTo(new BigDecimal(INITIAL_BALANCE).multiply(BigDecimal.valueOf(ACCOUNTS)));
+    assertThat(completed.sum()).isPositive();
+  }
+}
@@ -0,0 +1,230 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.BalanceUpdate;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.domain.TransferResult;
+import com.dws.challenge.exception.TransfersOverloadedException;
+import com.dws.challenge.reactive.ReactiveTransferFacade;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.TransferBatchService;
+import com.dws.challenge.web.ReactiveAccountsController;
+
+import jakarta.validation.Validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveAccountsControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Autowired
+  private ReactiveTransferFacade transferFacade;
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @BeforeEach
+  void clearAccounts() {
+    accountsService.getAccountsRepository().clearAccounts();
+  }
+
+  @Test
+  void reactiveProfileRunsOnNetty() {
+    assertThat(((WebServerApplicationContext) this.applicationContext).getWebServer()).isInstanceOf(NettyWebServer.class);
+  }
+
+  @Test
+  void createTransferAndConditionalGet() {
+    createAccount("Id-rx-1", "100");
+    createAccount("Id-rx-2", "0");
+
+    this.webTestClient.post().uri("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"fromAccountId\":\"Id-rx-1\",\"toAccountId\":\"Id-rx-2\",\"amount\":40}")
+      .exchange().expectStatus().isCreated();
+    this.webTestClient.post().uri("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"fromAccountId\":\"Id-rx-1\",\"toAccountId\":\"Id-rx-2\",\"amount\":400}")
+      .exchange().expectStatus().isBadRequest();
+
+    String eTag = this.webTestClient.get().uri("/v1/accounts/Id-rx-1").exchange()
+      .expectStatus().isOk()
+      .expectBody().jsonPath("$.balance").isEqualTo(60)
+      .returnResult().getResponseHeaders().getETag();
+    this.webTestClient.get().uri("/v1/accounts/Id-rx-1").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+      .expectStatus().isNotModified();
+  }
+
+  @Test
+  void invalidTransferIsRejected() {
+    this.webTestClient.post().uri("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"fromAccountId\":\"Id-rx-1\",\"amount\":1}")
+      .exchange().expectStatus().isBadRequest();
+  }
+
+  @Test
+  void balanceUpdatesAreStreamed() throws Exception {
+    Account account = createAccount("Id-rx-3", "100");
+    createAccount("Id-rx-4", "0");
+
+    Flux<ServerSentEvent<BalanceUpdate>> events = this.webTestClient.get().uri("/v1/accounts/Id-rx-3/balance-updates")
+      .accept(MediaType.TEXT_EVENT_STREAM).exchange()
+      .expectStatus().isOk()
+      .returnResult(new ParameterizedTypeReference<ServerSentEvent<BalanceUpdate>>() {}).getResponseBody();
+    CountDownLatch currentBalanceReceived = new CountDownLatch(1);
+    CompletableFuture<List<BigDecimal>> balances = events.filter(event -> event.data() != null)
+      .map(event -> event.data().getBalance()).doOnNext(balance -> currentBalanceReceived.countDown())
+      .take(2).collectList().toFuture();
+
+    // current balance is sent once subscriber is registered, so the transfer can not be missed
+    assertThat(currentBalanceReceived.await(10, TimeUnit.SECONDS)).isTrue();
+    this.accountsService.transferMoney(new TransferRequest(account.getAccountId(), "Id-rx-4", new BigDecimal("30")));
+
+    assertThat(balances.get(10, TimeUnit.SECONDS)).usingElementComparator(BigDecimal::compareTo)
+      .containsExactly(new BigDecimal("100"), new BigDecimal("70"));
+  }
+
+  @Test
+  void balanceUpdatesOfUnknownAccount() {
+    this.webTestClient.get().uri("/v1/accounts/Id-rx-unknown/balance-updates").accept(MediaType.TEXT_EVENT_STREAM)
+      .exchange().expectStatus().isNotFound();
+  }
+
+  @Test
+  void transferStreamAnswersEveryTransferInOrder() {
+    createAccount("Id-rx-5", "100");
+    createAccount("Id-rx-6", "0");
+    Flux<TransferRequest> transfers = Flux.range(0, 50)
+      .map(i -> new TransferRequest("Id-rx-5", "Id-rx-6", new BigDecimal(i == 10 ? "-1" : "3")));
+
+    List<TransferResult> results = this.webTestClient.post().uri("/v1/accounts/transfer/stream")
+      .contentType(MediaType.APPLICATION_NDJSON).accept(MediaType.APPLICATION_NDJSON)
+      .body(transfers, TransferRequest.class).exchange()
+      .expectStatus().isOk()
+      .returnResult(TransferResult.class).getResponseBody().collectList().block(Duration.ofSeconds(10));
+
+    assertThat(results).hasSize(50);
+    assertThat(results.get(10).getStatus()).isEqualTo(400);
+    // 49 valid transfers of 3 drain 100 after 33 of them
+    assertThat(results.stream().filter(result -> result.getStatus() == 201)).hasSize(33);
+    assertThat(this.accountsService.getAccount("Id-rx-5").getBalance()).isEqualByComparingTo("1");
+  }
+
+  @Test
+  void transferStreamKeepsAtMostMaxInFlightTransfersInProgress() throws Exception {
+    TransferBatchService transferBatchService = mock(TransferBatchService.class);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger started = new AtomicInteger();
+    when(transferBatchService.transferMoney(any(TransferRequest.class))).thenAnswer(invocation -> {
+      started.incrementAndGet();
+      release.await(10, TimeUnit.SECONDS);
+      return new TransferResult(201, null);
+    });
+    // executor could run twice as many transfers, only the stream limit holds them back
+    ReactiveTransferFacade facade = new ReactiveTransferFacade(transferBatchService, 8, 64);
+    ReactiveAccountsController controller = new ReactiveAccountsController(this.accountsService, null, facade, null, null, null,
+      this.validator, 4, 15);
+    AtomicLong requested = new AtomicLong();
+    Flux<TransferRequest> transfers = Flux.range(0, 100)
+      .map(i -> new TransferRequest("Id-rx-9", "Id-rx-10", BigDecimal.ONE))
+      .doOnRequest(requested::addAndGet);
+
+    CompletableFuture<List<TransferResult>> results = controller.transferMoneyStream(transfers).collectList().toFuture();
+    for (int i = 0; i < 1_000 && started.get() < 4; i++) {
+      Thread.sleep(10);
+    }
+
+    assertThat(started.get()).isEqualTo(4);
+    assertThat(requested.get()).isEqualTo(4);
+    release.countDown();
+    assertThat(results.get(10, TimeUnit.SECONDS)).hasSize(100).allMatch(result -> result.getStatus() == 201);
+    assertThat(requested.get()).isGreaterThanOrEqualTo(100);
+    facade.stop();
+  }
+
+  @Test
+  void fullExecutorRefusesWork() throws Exception {
+    ReactiveTransferFacade facade = new ReactiveTransferFacade(null, 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> running = facade.submit(() -> release.await(10, TimeUnit.SECONDS)).toFuture();
+    CompletableFuture<Boolean> queued = facade.submit(() -> true).toFuture();
+
+    assertThatThrownBy(() -> facade.submit(() -> true).block(Duration.ofSeconds(1)))
+      .isInstanceOf(TransfersOverloadedException.class);
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+    facade.stop();
+  }
+
+  @Test
+  void overloadedTransferIsAnsweredWithRetryAfter() {
+    createAccount("Id-rx-7", "100");
+    createAccount("Id-rx-8", "0");
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean overloaded = new AtomicBoolean();
+    try {
+      // every transfer thread and queue slot is taken by work waiting for release
+      while (!overloaded.get()) {
+        this.transferFacade.submit(() -> release.await(10, TimeUnit.SECONDS))
+          .subscribe(released -> { }, error -> overloaded.set(error instanceof TransfersOverloadedException));
+      }
+
+      this.webTestClient.post().uri("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"fromAccountId\":\"Id-rx-7\",\"toAccountId\":\"Id-rx-8\",\"amount\":1}")
+        .exchange().expectStatus().isEqualTo(503)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+    } finally {
+      release.countDown();
+    }
+    assertThat(this.accountsService.getAccount("Id-rx-7").getBalance()).isEqualByComparingTo("100");
+  }
+
+  private Account createAccount(String accountId, String balance) {
+    this.webTestClient.post().uri("/v1/accounts").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"accountId\":\"" + accountId + "\",\"balance\":" + balance + "}")
+      .exchange().expectStatus().isCreated();
+    return this.accountsService.getAccount(accountId);
+  }
+}
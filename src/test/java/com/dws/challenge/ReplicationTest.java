@@ -0,0 +1,149 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.AccountEvent;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.ReadOnlyReplicaException;
+import com.dws.challenge.exception.ReplicationOffsetOutOfRangeException;
+import com.dws.challenge.replication.ReplicationClient;
+import com.dws.challenge.replication.ReplicationLog;
+import com.dws.challenge.replication.ReplicationRecord;
+import com.dws.challenge.replication.ReplicationServer;
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.service.AccountsService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+class ReplicationTest {
+
+  @Test
+  void logReadsInOffsetOrderAndDetectsOverwrittenOffsets() {
+    ReplicationLog replicationLog = new ReplicationLog(4);
+    for (int i = 0; i < 6; i++) {
+      replicationLog.onAccountEvent(AccountEvent.created(new Account("Id-" + i)));
+    }
+
+    List<ReplicationRecord> batch = new ArrayList<>();
+    replicationLog.read(3, batch, 10);
+    assertThat(batch).extracting(ReplicationRecord::getOffset).containsExactly(3L, 4L, 5L);
+    assertThatThrownBy(() -> replicationLog.read(1, new ArrayList<>(), 10))
+      .isInstanceOf(ReplicationOffsetOutOfRangeException.class);
+  }
+
+  @Test
+  void standbyCatchesUpAndFollowsPrimary() throws Exception {
+    int replicationPort = freePort();
+    try (ConfigurableApplicationContext primary = startNode("primary", replicationPort)) {
+      AccountsService primaryService = primary.getBean(AccountsService.class);
+      primaryService.createAccount(new Account("Id-1", new BigDecimal("100")));
+      primaryService.createAccount(new Account("Id-2", new BigDecimal("100")));
+      primaryService.transferMoney(new TransferRequest("Id-1", "Id-2", new BigDecimal("30")));
+
+      try (ConfigurableApplicationContext standby = startNode("standby", replicationPort)) {
+        AccountsRepository standbyRepository = standby.getBean(AccountsRepository.class);
+        primaryService.transferMoney(new TransferRequest("Id-2", "Id-1", new BigDecimal("5")));
+
+        awaitBalance(standbyRepository, "Id-1", "75");
+        assertThat(standbyRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("125");
+        awaitNoLag(primary.getBean(ReplicationServer.class));
+      }
+    }
+  }
+
+  @Test
+  void standbyAttachingAfterLogWrappedBootstrapsFromSnapshot() throws Exception {
+    int replicationPort = freePort();
+    try (ConfigurableApplicationContext primary = startNode("primary", replicationPort, "replication.log-capacity=4")) {
+      AccountsService primaryService = primary.getBean(AccountsService.class);
+      primaryService.createAccount(new Account("Id-1", new BigDecimal("100")));
+      primaryService.createAccount(new Account("Id-2", new BigDecimal("100")));
+      primaryService.createAccount(new Account("Id-3", new BigDecimal("100")));
+      for (int i = 0; i < 5; i++) {
+        primaryService.transferMoney(new TransferRequest("Id-1", "Id-2", new BigDecimal("10")));
+      }
+
+      try (ConfigurableApplicationContext standby = startNode("standby", replicationPort)) {
+        AccountsRepository standbyRepository = standby.getBean(AccountsRepository.class);
+        awaitBalance(standbyRepository, "Id-1", "50");
+        assertThat(standbyRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("150");
+        assertThat(standbyRepository.getAccount("Id-3").getBalance()).isEqualByComparingTo("100");
+
+        primaryService.transferMoney(new TransferRequest("Id-3", "Id-1", new BigDecimal("25")));
+        awaitBalance(standbyRepository, "Id-1", "75");
+        assertThat(standbyRepository.getAccount("Id-3").getBalance()).isEqualByComparingTo("75");
+        awaitNoLag(primary.getBean(ReplicationServer.class));
+      }
+    }
+  }
+
+  @Test
+  void standbyRejectsWritesUntilPromoted() throws Exception {
+    int replicationPort = freePort();
+    try (ConfigurableApplicationContext primary = startNode("primary", replicationPort)) {
+      primary.getBean(AccountsService.class).createAccount(new Account("Id-1", new BigDecimal("100")));
+
+      try (ConfigurableApplicationContext standby = startNode("standby", replicationPort)) {
+        AccountsService standbyService = standby.getBean(AccountsService.class);
+        awaitBalance(standbyService.getAccountsRepository(), "Id-1", "100");
+        assertThatThrownBy(() -> standbyService.createAccount(new Account("Id-2", new BigDecimal("100"))))
+          .isInstanceOf(ReadOnlyReplicaException.class);
+        assertThatThrownBy(() -> standbyService.transferMoney(new TransferRequest("Id-1", "Id-1", BigDecimal.ONE)))
+          .isInstanceOf(ReadOnlyReplicaException.class);
+        assertThat(standbyService.getAccount("Id-2")).isNull();
+
+        standby.getBean(ReplicationClient.class).promote();
+        standbyService.createAccount(new Account("Id-2", new BigDecimal("100")));
+        standbyService.transferMoney(new TransferRequest("Id-1", "Id-2", new BigDecimal("40")));
+        assertThat(standbyService.getAccount("Id-1").getBalance()).isEqualByComparingTo("60");
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext startNode(String role, int replicationPort, String... properties) {
+    return new SpringApplicationBuilder(ChallengeApplication.class)
+      .properties("server.port=0",
+        "replication.role=" + role,
+        "replication.port=" + replicationPort,
+        "scheduler.journal-path=")
+      .properties(properties)
+      .run();
+  }
+
+  private static void awaitBalance(AccountsRepository repository, String accountId, String balance) throws InterruptedException {
+    long waitUntil = System.currentTimeMillis() + 10_000;
+    while (System.currentTimeMillis() < waitUntil) {
+      Account account = repository.getAccount(accountId);
+      if (account != null && account.getBalance().compareTo(new BigDecimal(balance)) == 0) {
+        return;
+      }
+      Thread.sleep(20);
+    }
+    assertThat(repository.getAccount(accountId)).isNotNull();
+    assertThat(repository.getAccount(accountId).getBalance()).isEqualByComparingTo(balance);
+  }
+
+  private static void awaitNoLag(ReplicationServer replicationServer) throws InterruptedException {
+    long waitUntil = System.currentTimeMillis() + 10_000;
+    while (replicationServer.maxLag() > 0 && System.currentTimeMillis() < waitUntil) {
+      Thread.sleep(20);
+    }
+    assertThat(replicationServer.maxLag()).isZero();
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
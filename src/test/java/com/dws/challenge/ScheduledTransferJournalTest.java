@@ -0,0 +1,199 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import com.dws.challenge.cluster.ClusterTransferService;
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.exception.ClusterCommunicationException;
+import com.dws.challenge.exception.TranserMoneyValidationException;
+import com.dws.challenge.scheduler.ScheduledTransfer;
+import com.dws.challenge.scheduler.ScheduledTransferJournal;
+import com.dws.challenge.scheduler.ScheduledTransferService;
+import com.dws.challenge.service.AccountsService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "scheduler.journal-path=build/scheduler-test/scheduled-transfers.journal" })
+class ScheduledTransferJournalTest {
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Autowired
+  private ScheduledTransferService scheduledTransferService;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void reopenedJournalReturnsOnlyPendingTransfersAndIsCompacted() throws Exception {
+    Path journalPath = tempDir.resolve("scheduled.journal");
+    ScheduledTransferJournal journal = new ScheduledTransferJournal(journalPath.toString());
+    assertThat(journal.open()).isEmpty();
+    for (long id = 1; id <= 100; id++) {
+      journal.appendScheduled(scheduledTransfer(id, "10.25"));
+    }
+    for (long id = 1; id <= 100; id++) {
+      if (id != 42 && id != 77) {
+        journal.appendCompleted(id);
+      }
+    }
+    journal.close();
+    long uncompactedSize = Files.size(journalPath);
+
+    journal = new ScheduledTransferJournal(journalPath.toString());
+    List<ScheduledTransfer> pending = journal.open();
+    journal.close();
+    long compactedSize = Files.size(journalPath);
+
+    assertThat(pending).extracting(ScheduledTransfer::getId).containsExactly(42L, 77L);
+    assertThat(pending.get(0).getTransferRequest())
+      .isEqualTo(new TransferRequest("Id-from", "Id-to", new BigDecimal("10.25"), 1_000L + 42));
+    assertThat(compactedSize).isLessThan(uncompactedSize);
+
+    journal = new ScheduledTransferJournal(journalPath.toString());
+    assertThat(journal.open()).extracting(ScheduledTransfer::getId).containsExactly(42L, 77L);
+    journal.close();
+    assertThat(Files.size(journalPath)).isEqualTo(compactedSize);
+  }
+
+  @Test
+  void syncedCompletionSurvivesCrashBeforeFlush() throws Exception {
+    Path journalPath = tempDir.resolve("scheduled.journal");
+    ScheduledTransferJournal journal = new ScheduledTransferJournal(journalPath.toString());
+    journal.open();
+    journal.appendScheduled(scheduledTransfer(1, "5"));
+    journal.appendScheduled(scheduledTransfer(2, "5"));
+    journal.awaitDurable(journal.appendCompleted(1));
+    journal.sync();
+    journal.appendScheduled(scheduledTransfer(3, "5"));
+
+    // file as left on disk by a crash, buffered records are lost
+    Path crashImage = tempDir.resolve("crashed.journal");
+    Files.copy(journalPath, crashImage);
+    journal.close();
+
+    ScheduledTransferJournal replayed = new ScheduledTransferJournal(crashImage.toString());
+    assertThat(replayed.open()).extracting(ScheduledTransfer::getId).containsExactly(2L);
+    replayed.close();
+  }
+
+  @Test
+  void executedTransferIsNotReplayedAfterCrash() throws Exception {
+    Account from = new Account("Id-journal-from-" + System.nanoTime(), new BigDecimal("100"));
+    Account to = new Account("Id-journal-to-" + System.nanoTime(), BigDecimal.ZERO);
+    accountsService.createAccount(from);
+    accountsService.createAccount(to);
+
+    scheduledTransferService.scheduleTransfer(new TransferRequest(from.getAccountId(), to.getAccountId(),
+      new BigDecimal("40"), System.currentTimeMillis() + 50));
+    for (int i = 0; i < 500 && to.getBalance().signum() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(to.getBalance()).isEqualByComparingTo("40");
+
+    // journal of running service is copied without flushing it, as a crash would leave it, completion is synced with its batch
+    List<ScheduledTransfer> pending = List.of();
+    for (int i = 0; i < 500; i++) {
+      pending = crashImagePending();
+      if (pending.stream().noneMatch(scheduledTransfer -> scheduledTransfer.getTransferRequest().getFromAccountId().equals(from.getAccountId()))) {
+        break;
+      }
+      Thread.sleep(10);
+    }
+
+    assertThat(pending).noneMatch(scheduledTransfer ->
+      scheduledTransfer.getTransferRequest().getFromAccountId().equals(from.getAccountId()));
+    assertThat(from.getBalance()).isEqualByComparingTo("60");
+  }
+
+  @Test
+  void acceptedTransferSurvivesCrash() throws Exception {
+    Account from = new Account("Id-journal-accepted-" + System.nanoTime(), new BigDecimal("100"));
+    Account to = new Account("Id-journal-accepted-to-" + System.nanoTime(), BigDecimal.ZERO);
+    accountsService.createAccount(from);
+    accountsService.createAccount(to);
+
+    long id = scheduledTransferService.scheduleTransfer(new TransferRequest(from.getAccountId(), to.getAccountId(),
+      new BigDecimal("10"), System.currentTimeMillis() + 3_600_000));
+
+    assertThat(crashImagePending()).extracting(ScheduledTransfer::getId).contains(id);
+  }
+
+  @Test
+  void amountsOfAnySizeAreReplayed() throws Exception {
+    Path journalPath = tempDir.resolve("scheduled.journal");
+    BigDecimal hugeAmount = new BigDecimal(BigInteger.ONE.shiftLeft(4_000).add(BigInteger.TEN), 2);
+    ScheduledTransferJournal journal = new ScheduledTransferJournal(journalPath.toString());
+    journal.open();
+    journal.appendScheduled(new ScheduledTransfer(1, new TransferRequest("Id-from", "Id-to", hugeAmount, 1_000L)));
+    journal.appendScheduled(scheduledTransfer(2, "5"));
+    journal.sync();
+    journal.close();
+
+    journal = new ScheduledTransferJournal(journalPath.toString());
+    List<ScheduledTransfer> pending = journal.open();
+    journal.close();
+    assertThat(pending).extracting(ScheduledTransfer::getId).containsExactly(1L, 2L);
+    assertThat(pending.get(0).getTransferRequest().getAmount()).isEqualTo(hugeAmount);
+  }
+
+  @Test
+  void transientFailureIsRetriedAndValidationFailureIsNot() throws Exception {
+    ClusterTransferService clusterTransferService = mock(ClusterTransferService.class);
+    TransferRequest unreachable = new TransferRequest("Id-remote-from", "Id-to", BigDecimal.ONE, System.currentTimeMillis() + 20);
+    TransferRequest invalid = new TransferRequest("Id-invalid-from", "Id-to", BigDecimal.ONE, System.currentTimeMillis() + 20);
+    doThrow(new ClusterCommunicationException("node down")).doNothing()
+      .when(clusterTransferService).transferMoney(eq(unreachable), any());
+    doThrow(new TranserMoneyValidationException("invalid"))
+      .when(clusterTransferService).transferMoney(eq(invalid), any());
+    ScheduledTransferService service = new ScheduledTransferService(clusterTransferService,
+      new ScheduledTransferJournal(tempDir.resolve("retry.journal").toString()), 10, 500, 1, 50);
+    service.start();
+
+    service.scheduleTransfer(unreachable);
+    service.scheduleTransfer(invalid);
+
+    verify(clusterTransferService, timeout(5_000).times(2))
+      .transferMoney(argThat(request -> request.getFromAccountId().equals("Id-remote-from")), any());
+    Thread.sleep(200);
+    verify(clusterTransferService, times(1)).transferMoney(eq(invalid), any());
+    service.stop();
+  }
+
+  private List<ScheduledTransfer> crashImagePending() throws Exception {
+    Path crashImage = Files.createTempFile(tempDir, "crashed", ".journal");
+    Files.copy(Paths.get("build/scheduler-test/scheduled-transfers.journal"), crashImage, StandardCopyOption.REPLACE_EXISTING);
+    ScheduledTransferJournal replayed = new ScheduledTransferJournal(crashImage.toString());
+    List<ScheduledTransfer> pending = replayed.open();
+    replayed.close();
+    return pending;
+  }
+
+  private static ScheduledTransfer scheduledTransfer(long id, String amount) {
+    return new ScheduledTransfer(id, new TransferRequest("Id-from", "Id-to", new BigDecimal(amount), 1_000L + id));
+  }
+}
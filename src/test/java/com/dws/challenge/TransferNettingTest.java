@@ -0,0 +1,170 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.domain.TransferRequest;
+import com.dws.challenge.netting.TransferNettingService;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.NotificationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "netting.enabled=true", "netting.window-millis=200" })
+@WebAppConfiguration
+class TransferNettingTest {
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Autowired
+  private TransferNettingService transferNettingService;
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @MockBean
+  private NotificationService notificationService;
+
+  @BeforeEach
+  void prepareMockMvc() {
+    this.mockMvc = webAppContextSetup(this.webApplicationContext).build();
+    accountsService.getAccountsRepository().clearAccounts();
+  }
+
+  @Test
+  void transfersWithinWindowAreNetted() throws Exception {
+    Account a = new Account("Id-net-A", new BigDecimal("100"));
+    Account b = new Account("Id-net-B", new BigDecimal("100"));
+    this.accountsService.createAccount(a);
+    this.accountsService.createAccount(b);
+    List<TransferRequest> requests = List.of(new TransferRequest("Id-net-A", "Id-net-B", new BigDecimal("30")),
+      new TransferRequest("Id-net-B", "Id-net-A", new BigDecimal("50")),
+      new TransferRequest("Id-net-A", "Id-net-B", new BigDecimal("10")));
+
+    ExecutorService callers = Executors.newFixedThreadPool(requests.size());
+    CyclicBarrier start = new CyclicBarrier(requests.size());
+    List<Future<?>> futures = new ArrayList<>();
+    for (TransferRequest request : requests) {
+      futures.add(callers.submit(() -> {
+        start.await();
+        this.transferNettingService.transferMoney(request);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    callers.shutdown();
+
+    assertThat(a.getBalance()).isEqualByComparingTo("110");
+    assertThat(b.getBalance()).isEqualByComparingTo("90");
+    // single balance movement per account for the whole window
+    assertThat(a.getVersion()).isEqualTo(1);
+    assertThat(b.getVersion()).isEqualTo(1);
+    // every request still notifies both owners
+    verify(notificationService, times(6)).notifyAboutTransfer(any(Account.class), anyString());
+  }
+
+  @Test
+  void groupsOfDifferentPairsAreAppliedConcurrently() throws Exception {
+    int pairs = 8;
+    List<TransferRequest> requests = new ArrayList<>();
+    for (int i = 0; i < pairs; i++) {
+      this.accountsService.createAccount(new Account("Id-net-from-" + i, new BigDecimal("100")));
+      this.accountsService.createAccount(new Account("Id-net-to-" + i, new BigDecimal("100")));
+      requests.add(new TransferRequest("Id-net-from-" + i, "Id-net-to-" + i, new BigDecimal("10")));
+    }
+    // every group blocks in its notification until all groups are being applied at the same time
+    CountDownLatch applying = new CountDownLatch(pairs);
+    AtomicBoolean allApplyingTogether = new AtomicBoolean(true);
+    doAnswer(invocation -> {
+      applying.countDown();
+      if (!applying.await(10, TimeUnit.SECONDS)) {
+        allApplyingTogether.set(false);
+      }
+      return null;
+    }).when(notificationService).notifyAboutTransfer(any(Account.class), anyString());
+
+    ExecutorService callers = Executors.newFixedThreadPool(pairs);
+    List<Future<?>> futures = new ArrayList<>();
+    for (TransferRequest request : requests) {
+      futures.add(callers.submit(() -> {
+        this.transferNettingService.transferMoney(request);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    callers.shutdown();
+
+    assertThat(allApplyingTogether).isTrue();
+    for (int i = 0; i < pairs; i++) {
+      assertThat(this.accountsService.getAccount("Id-net-to-" + i).getBalance()).isEqualByComparingTo("110");
+    }
+  }
+
+  @Test
+  void batchIsNettedWithOutcomePerRequest() throws Exception {
+    Account a = new Account("Id-net-C", new BigDecimal("10"));
+    Account b = new Account("Id-net-D", new BigDecimal("0"));
+    this.accountsService.createAccount(a);
+    this.accountsService.createAccount(b);
+
+    this.mockMvc.perform(post("/v1/accounts/transfer/batch").contentType(MediaType.APPLICATION_JSON)
+      .content("{\"transfers\":[{\"fromAccountId\":\"Id-net-C\",\"toAccountId\":\"Id-net-D\",\"amount\":10},"
+        + "{\"fromAccountId\":\"Id-net-C\",\"toAccountId\":\"Id-net-D\",\"amount\":5},"
+        + "{\"fromAccountId\":\"Id-net-D\",\"toAccountId\":\"Id-net-C\",\"amount\":10},"
+        + "{\"fromAccountId\":\"Id-net-C\",\"toAccountId\":\"Id-unknown\",\"amount\":1}]}"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].status").value(201))
+      .andExpect(jsonPath("$[1].status").value(400))
+      .andExpect(jsonPath("$[2].status").value(201))
+      .andExpect(jsonPath("$[3].status").value(400));
+
+    // second transfer is rejected as it would be if processed alone, the others cancel out
+    assertThat(a.getBalance()).isEqualByComparingTo("10");
+    assertThat(b.getBalance()).isEqualByComparingTo("0");
+    assertThat(a.getVersion()).isZero();
+  }
+
+  @Test
+  void emptyBatchIsRejected() throws Exception {
+    this.mockMvc.perform(post("/v1/accounts/transfer/batch").contentType(MediaType.APPLICATION_JSON)
+      .content("{\"transfers\":[]}")).andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,136 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.tracing.TransferTraceAnalyzer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@WebAppConfiguration
+class TransferTracingTest {
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AccountsService accountsService;
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @BeforeEach
+  void prepareMockMvc() {
+    this.mockMvc = webAppContextSetup(this.webApplicationContext).build();
+    accountsService.getAccountsRepository().clearAccounts();
+  }
+
+  @Test
+  void everyStageOfTransferIsRecorded() throws Exception {
+    this.accountsService.createAccount(new Account("Id-trace-1", new BigDecimal("100")));
+    this.accountsService.createAccount(new Account("Id-trace-2", new BigDecimal("100")));
+    Path recordingFile = Files.createTempFile("transfers", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.start();
+      for (int i = 0; i < 10; i++) {
+        this.mockMvc.perform(post("/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+          .content("{\"fromAccountId\":\"Id-trace-1\",\"toAccountId\":\"Id-trace-2\",\"amount\":1}")).andExpect(status().isCreated());
+      }
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+    TransferTraceAnalyzer analyzer = new TransferTraceAnalyzer(events);
+    assertThat(analyzer.getDurationsByStage()).containsKeys("Transfer", "TransferDeserialization", "AccountLookup",
+      "TransferValidation[accounts]", "TransferValidation[balance]", "LockAcquisition[parent]", "LockAcquisition[child]",
+      "BalanceMutation[debit]", "BalanceMutation[credit]", "NotificationDispatch");
+    assertThat(analyzer.getDurationsByStage().get("Transfer")).hasSize(10);
+
+    ByteArrayOutputStream report = new ByteArrayOutputStream();
+    analyzer.print(new PrintStream(report, true), 3);
+    assertThat(report.toString()).contains("Slowest 3 of 10 transfers").contains("Id-trace-1 -> Id-trace-2");
+    Files.deleteIfExists(recordingFile);
+  }
+
+  @Nested
+  @TestPropertySource(properties = "netting.enabled=true")
+  class WithNetting {
+
+    @Autowired
+    private AccountsService nettingAccountsService;
+
+    @Autowired
+    private WebApplicationContext nettingWebApplicationContext;
+
+    @Test
+    void everyStageOfNettedTransfersIsRecorded() throws Exception {
+      MockMvc nettingMockMvc = webAppContextSetup(this.nettingWebApplicationContext).build();
+      this.nettingAccountsService.getAccountsRepository().clearAccounts();
+      this.nettingAccountsService.createAccount(new Account("Id-net-trace-1", new BigDecimal("100")));
+      this.nettingAccountsService.createAccount(new Account("Id-net-trace-2", new BigDecimal("100")));
+      StringBuilder transfers = new StringBuilder();
+      for (int i = 0; i < 10; i++) {
+        String from = i % 3 == 0 ? "Id-net-trace-2" : "Id-net-trace-1";
+        String to = i % 3 == 0 ? "Id-net-trace-1" : "Id-net-trace-2";
+        transfers.append(i == 0 ? "" : ",").append("{\"fromAccountId\":\"").append(from)
+          .append("\",\"toAccountId\":\"").append(to).append("\",\"amount\":1}");
+      }
+      Path recordingFile = Files.createTempFile("netted-transfers", ".jfr");
+
+      try (Recording recording = new Recording()) {
+        recording.start();
+        nettingMockMvc.perform(post("/v1/accounts/transfer/batch").contentType(MediaType.APPLICATION_JSON)
+          .content("{\"transfers\":[" + transfers + "]}")).andExpect(status().isOk());
+        recording.stop();
+        recording.dump(recordingFile);
+      }
+
+      TransferTraceAnalyzer analyzer = new TransferTraceAnalyzer(RecordingFile.readAllEvents(recordingFile));
+      assertThat(analyzer.getDurationsByStage()).containsKeys("Transfer", "AccountLookup",
+        "TransferValidation[accounts]", "TransferValidation[balance]", "LockAcquisition[parent]", "LockAcquisition[child]",
+        "BalanceMutation[debit]", "BalanceMutation[credit]", "NotificationDispatch");
+      List<RecordedEvent> nettedTransfers = RecordingFile.readAllEvents(recordingFile).stream()
+        .filter(event -> event.getEventType().getName().equals("com.dws.challenge.Transfer"))
+        .toList();
+      assertThat(nettedTransfers).hasSize(1);
+      RecordedEvent nettedTransfer = nettedTransfers.get(0);
+      assertThat(nettedTransfer.getString("outcome")).isEqualTo("NETTED");
+      assertThat(nettedTransfer.getString("fromAccountId")).isEqualTo("Id-net-trace-1");
+      assertThat(nettedTransfer.getString("amount")).isEqualTo("2");
+      assertThat(analyzer.stagesOf(nettedTransfer)).extracting(event -> event.getEventType().getName())
+        .contains("com.dws.challenge.LockAcquisition", "com.dws.challenge.BalanceMutation",
+          "com.dws.challenge.NotificationDispatch");
+      assertThat(this.nettingAccountsService.getAccount("Id-net-trace-2").getBalance()).isEqualByComparingTo("102");
+      Files.deleteIfExists(recordingFile);
+    }
+  }
+}